@@ -0,0 +1,210 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.money.Money;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class ClientBinaryFormatTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] toBytes(Client client) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ClientBinaryFormat.write(client, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testScenarios() throws IOException
+    {
+        for (String scenario : new String[] { "currency_sample.xml", "volatility.xml",
+                        "security_performance_tax_refund.xml" })
+        {
+            Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/" + scenario));
+
+            byte[] bytes = toBytes(client);
+            Client loaded = ClientBinaryFormat.read(new ByteArrayInputStream(bytes));
+
+            assertThat(toBytes(loaded), is(bytes));
+            assertThat(loaded.getSecurities().size(), is(client.getSecurities().size()));
+            assertThat(loaded.getAccounts().size(), is(client.getAccounts().size()));
+            assertThat(loaded.getPortfolios().size(), is(client.getPortfolios().size()));
+
+            for (int ii = 0; ii < client.getSecurities().size(); ii++)
+                assertThat(loaded.getSecurities().get(ii).getPrices(), is(client.getSecurities().get(ii).getPrices()));
+        }
+    }
+
+    @Test
+    public void testReferencesAndAttributes() throws IOException
+    {
+        Client client = new Client();
+
+        Security security = new Security("Security", CurrencyUnit.EUR);
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 1000));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 900));
+        security.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-06"), 1200));
+        security.addEvent(new SecurityEvent(LocalDate.parse("2015-01-03"), SecurityEvent.Type.STOCK_SPLIT, "1:2"));
+        client.getSettings().getAttributeTypes().forEach(t -> {
+            if (t.getType() == Double.class)
+                security.getAttributes().put(t, 0.5);
+            else if (t.getType() == Long.class)
+                security.getAttributes().put(t, 42L);
+        });
+        client.addSecurity(security);
+
+        Account account = new Account("Account");
+        client.addAccount(account);
+        Account other = new Account("Other");
+        other.setCurrencyCode("USD");
+        client.addAccount(other);
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setName("Portfolio");
+        portfolio.setReferenceAccount(account);
+        client.addPortfolio(portfolio);
+
+        BuySellEntry buy = new BuySellEntry(portfolio, account);
+        buy.setType(PortfolioTransaction.Type.BUY);
+        buy.setDate(LocalDate.parse("2015-01-05"));
+        buy.setSecurity(security);
+        buy.setShares(Values.Share.factorize(10));
+        buy.setMonetaryAmount(Money.of(CurrencyUnit.EUR, 11000));
+        buy.insert();
+
+        AccountTransferEntry transfer = new AccountTransferEntry(account, other);
+        transfer.setDate(LocalDate.parse("2015-01-08"));
+        transfer.setAmount(1000);
+        transfer.setCurrencyCode(CurrencyUnit.EUR);
+        transfer.getTargetTransaction().setMonetaryAmount(Money.of("USD", 1200));
+        transfer.getTargetTransaction().addUnit(new Transaction.Unit(Transaction.Unit.Type.GROSS_VALUE,
+                        Money.of("USD", 1200), Money.of(CurrencyUnit.EUR, 1000), new BigDecimal("1.2")));
+        transfer.insert();
+
+        InvestmentPlan plan = new InvestmentPlan("Plan");
+        plan.setSecurity(security);
+        plan.setPortfolio(portfolio);
+        plan.getTransactions().add(buy.getPortfolioTransaction());
+        client.addPlan(plan);
+
+        Taxonomy taxonomy = new Taxonomy("Taxonomy");
+        taxonomy.setDimensions(Arrays.asList("a", "b"));
+        Classification root = new Classification("root", "Root");
+        taxonomy.setRootNode(root);
+        Classification child = new Classification(root, "child", "Child");
+        root.addChild(child);
+        child.addAssignment(new Classification.Assignment(security));
+        child.addAssignment(new Classification.Assignment(account));
+        client.addTaxonomy(taxonomy);
+
+        client.setProperty("key", "value");
+
+        Client loaded = ClientBinaryFormat.read(new ByteArrayInputStream(toBytes(client)));
+
+        Security loadedSecurity = loaded.getSecurities().get(0);
+        assertThat(loadedSecurity.getUUID(), is(security.getUUID()));
+        assertThat(loadedSecurity.getPrices(), is(security.getPrices()));
+        assertThat(loadedSecurity.getLatest().getValue(), is(1200L));
+        assertThat(loadedSecurity.getEvents().get(0).getDetails(), is("1:2"));
+        assertThat(loadedSecurity.getAttributes().getMap(), is(security.getAttributes().getMap()));
+        assertThat(loaded.getAccounts().get(1).getCurrencyCode(), is("USD"));
+        assertThat(loaded.getProperty("key"), is("value"));
+
+        Portfolio loadedPortfolio = loaded.getPortfolios().get(0);
+        assertThat(loadedPortfolio.getReferenceAccount(), is(sameInstance(loaded.getAccounts().get(0))));
+
+        PortfolioTransaction loadedBuy = loadedPortfolio.getTransactions().get(0);
+        assertThat(loadedBuy.getSecurity(), is(sameInstance(loadedSecurity)));
+        BuySellEntry loadedEntry = (BuySellEntry) loadedBuy.getCrossEntry();
+        assertThat(loadedEntry.getPortfolioTransaction(), is(sameInstance(loadedBuy)));
+        assertThat(loadedEntry.getAccountTransaction(),
+                        is(sameInstance(loaded.getAccounts().get(0).getTransactions().get(0))));
+        assertThat(loadedEntry.getAccountTransaction().getCrossEntry(), is(sameInstance(loadedEntry)));
+        assertThat(loaded.getPlans().get(0).getTransactions().get(0), is(sameInstance(loadedBuy)));
+
+        AccountTransaction loadedTarget = loaded.getAccounts().get(1).getTransactions().get(0);
+        Transaction.Unit unit = loadedTarget.getUnit(Transaction.Unit.Type.GROSS_VALUE).get();
+        assertThat(unit.getForex(), is(Money.of(CurrencyUnit.EUR, 1000)));
+        assertThat(unit.getExchangeRate(), is(new BigDecimal("1.2")));
+
+        Classification loadedChild = loaded.getTaxonomies().get(0).getRoot().getChildren().get(0);
+        assertThat(loadedChild.getParent(), is(sameInstance(loaded.getTaxonomies().get(0).getRoot())));
+        assertThat(loadedChild.getAssignments().get(0).getInvestmentVehicle(), is(sameInstance(loadedSecurity)));
+        assertThat(loaded.getTaxonomies().get(0).getDimensions(), is(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void testQuotesAreDecodedUponFirstAccess() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/volatility.xml"));
+        Security security = client.getSecurities().get(0);
+
+        byte[] bytes = toBytes(client);
+        Client loaded = ClientBinaryFormat.read(new ByteArrayInputStream(bytes));
+        Security loadedSecurity = loaded.getSecurities().get(0);
+
+        assertThat(loadedSecurity.getPriceSeries().getLoader() != null, is(true));
+
+        // saving does not decode the quotes
+        assertThat(toBytes(loaded), is(bytes));
+        assertThat(loadedSecurity.getPriceSeries().getLoader() != null, is(true));
+
+        // copies decode independently
+        Security copy = loadedSecurity.deepCopy();
+        assertThat(loadedSecurity.getPriceSeries().getLoader() != null, is(true));
+
+        assertThat(loadedSecurity.getPrices(), is(security.getPrices()));
+        assertThat(loadedSecurity.getPriceSeries().getLoader() == null, is(true));
+        assertThat(copy.getPrices(), is(security.getPrices()));
+    }
+
+    @Test
+    public void testFilesAreRecognizedBySignature() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+
+        File file = new File(folder.getRoot(), "client.ppb");
+        ClientFactory.save(client, file, null, null);
+
+        // a binary file is read independent of its name
+        File renamed = new File(folder.getRoot(), "client.xml");
+        Files.copy(file.toPath(), renamed.toPath());
+
+        Client loaded = ClientFactory.load(renamed, null, new NullProgressMonitor());
+        assertThat(loaded.getSecurities().size(), is(client.getSecurities().size()));
+
+        loaded = ClientFactory.load(new FileInputStream(file));
+        assertThat(loaded.getAccounts().size(), is(client.getAccounts().size()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedFileIsRejected() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+
+        byte[] bytes = toBytes(client);
+        ClientBinaryFormat.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+}
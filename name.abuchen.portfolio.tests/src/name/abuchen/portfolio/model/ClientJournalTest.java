@@ -0,0 +1,336 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SuppressWarnings("nls")
+public class ClientJournalTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private File journal;
+
+    @Before
+    public void setup() throws IOException
+    {
+        file = new File(folder.getRoot(), "client.ppb");
+        journal = ClientJournal.getJournalFile(file);
+
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/volatility.xml"));
+
+        // the file must be large enough compared to the records
+        Security index = new Security("Index", null);
+        LocalDate date = LocalDate.parse("2000-01-03");
+        for (int ii = 0; ii < 5000; ii++)
+            index.addPrice(new SecurityPrice(date.plusDays(ii), 10000 + (ii * 7919) % 5000));
+        client.addSecurity(index);
+
+        ClientFactory.save(client, file, null, null);
+    }
+
+    private Client load() throws IOException
+    {
+        return ClientFactory.load(file, null, new NullProgressMonitor());
+    }
+
+    private void assertSameQuotes(Client actual, Client expected)
+    {
+        assertThat(actual.getSecurities().size(), is(expected.getSecurities().size()));
+        for (int ii = 0; ii < expected.getSecurities().size(); ii++)
+        {
+            Security security = expected.getSecurities().get(ii);
+            assertThat(actual.getSecurities().get(ii).getPrices(), is(security.getPrices()));
+            assertThat(actual.getSecurities().get(ii).getLatest(), is(security.getLatest()));
+        }
+    }
+
+    @Test
+    public void testChangesAreReplayed() throws IOException
+    {
+        Client client = load();
+        long fileLength = file.length();
+
+        Security security = client.getSecurities().get(0);
+        SecurityPrice last = security.getPrices().get(security.getPrices().size() - 1);
+        security.addPrice(new SecurityPrice(last.getTime().plusDays(1), last.getValue() + 100));
+        security.addPrice(new SecurityPrice(security.getPrices().get(10).getTime(), 4711));
+        security.removePrice(security.getPrices().get(20));
+        security.setLatest(new LatestSecurityPrice(last.getTime().plusDays(2), 1234));
+
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+        assertThat(file.length(), is(fileLength));
+        assertThat(journal.exists(), is(true));
+
+        assertSameQuotes(load(), client);
+
+        // master data and new securities
+        security.setName("Renamed");
+        Security other = new Security("Other", "EUR");
+        other.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 1000));
+        client.addSecurity(other);
+        client.addAccount(new Account("Account"));
+
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+
+        Client loaded = load();
+        assertSameQuotes(loaded, client);
+        assertThat(loaded.getSecurities().get(0).getName(), is("Renamed"));
+        assertThat(loaded.getAccounts().size(), is(client.getAccounts().size()));
+
+        // the loaded client continues the journal
+        Security loadedOther = loaded.getSecurities().get(loaded.getSecurities().size() - 1);
+        loadedOther.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 1100));
+
+        assertThat(ClientFactory.saveIncrementally(loaded, file), is(true));
+        assertSameQuotes(load(), loaded);
+    }
+
+    @Test
+    public void testQuotesUpdatedWhileAppendingAreNotLost() throws IOException
+    {
+        Client client = load();
+        Security security = client.getSecurities().get(0);
+        SecurityPrice last = security.getPrices().get(security.getPrices().size() - 1);
+
+        security.addPrice(new SecurityPrice(last.getTime().plusDays(1), 1000));
+        ClientJournal.Changes changes = client.getJournal().collect(client);
+
+        // the quotes are updated (by another thread) after the changes have
+        // been encoded, but before they are marked as persisted
+        security.addPrice(new SecurityPrice(last.getTime().plusDays(2), 2000));
+        security.setLatest(new LatestSecurityPrice(last.getTime().plusDays(2), 2100));
+
+        assertThat(client.getJournal().append(client, file, changes), is(true));
+        assertThat(security.getPriceSeries().getFirstChangedDay() != Integer.MAX_VALUE, is(true));
+
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+        assertThat(security.getPriceSeries().getFirstChangedDay(), is(Integer.MAX_VALUE));
+
+        assertSameQuotes(load(), client);
+    }
+
+    @Test
+    public void testQuotesMergedConcurrentlyAreReplayed() throws Exception
+    {
+        Client client = load();
+        Security security = client.getSecurities().get(client.getSecurities().size() - 1);
+        LocalDate first = security.getPrices().get(0).getTime();
+
+        // insert quotes (as the update quotes job does) while appending. As
+        // the quotes are inserted at the beginning, the records contain the
+        // complete series.
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int ii = 1; isRunning.get(); ii++)
+                security.addPrice(new SecurityPrice(first.minusDays(ii), 100 + ii % 1000));
+        });
+        writer.start();
+
+        try
+        {
+            for (int ii = 0; ii < 300; ii++)
+            {
+                if (!ClientFactory.saveIncrementally(client, file))
+                    ClientFactory.save(client, file, null, null);
+            }
+        }
+        finally
+        {
+            isRunning.set(false);
+            writer.join();
+        }
+
+        client.getAccounts().get(0).setName("Renamed");
+        if (!ClientFactory.saveIncrementally(client, file))
+            ClientFactory.save(client, file, null, null);
+
+        Client loaded = load();
+        assertSameQuotes(loaded, client);
+        assertThat(loaded.getAccounts().get(0).getName(), is("Renamed"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRecordWhichCannotBeAppliedFailsLoading() throws IOException
+    {
+        Client client = load();
+        client.getSecurities().get(0).setName("Renamed");
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+
+        // a quotes record with a valid checksum referring to 3 securities,
+        // but containing none
+        byte[] payload = new byte[] { 3 };
+        CRC32 crc = new CRC32();
+        crc.update(2);
+        crc.update(payload);
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journal, true)))
+        {
+            out.writeByte(2);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeInt((int) crc.getValue());
+        }
+
+        load();
+    }
+
+    @Test
+    public void testIncompleteRecordIsIgnored() throws IOException
+    {
+        Client client = load();
+        Security security = client.getSecurities().get(0);
+        SecurityPrice last = security.getPrices().get(security.getPrices().size() - 1);
+
+        security.addPrice(new SecurityPrice(last.getTime().plusDays(1), 1000));
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+        long journalLength = journal.length();
+        Client expected = load();
+
+        security.addPrice(new SecurityPrice(last.getTime().plusDays(2), 2000));
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+
+        // simulate a crash while appending the second record
+        try (RandomAccessFile raf = new RandomAccessFile(journal, "rw"))
+        {
+            raf.setLength(journal.length() - 3);
+        }
+
+        Client loaded = load();
+        assertSameQuotes(loaded, expected);
+
+        // the next append replaces the incomplete record
+        Security loadedSecurity = loaded.getSecurities().get(0);
+        loadedSecurity.addPrice(new SecurityPrice(last.getTime().plusDays(3), 3000));
+        assertThat(ClientFactory.saveIncrementally(loaded, file), is(true));
+        assertThat(journal.length() > journalLength, is(true));
+
+        assertSameQuotes(load(), loaded);
+    }
+
+    @Test
+    public void testFileIsNotReplacedIfClientChangedWhileSaving() throws IOException
+    {
+        Client client = load();
+        client.getSecurities().get(0).setName("Renamed");
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        client.addAccount(new Account("Account"));
+        assertThat(ClientFactory.save(client, file, null, null, () -> false), is(false));
+
+        assertThat(Files.readAllBytes(file.toPath()), is(bytes));
+        assertThat(folder.getRoot().list().length, is(2));
+        assertThat(load().getSecurities().get(0).getName(), is("Renamed"));
+
+        // the journal must not be continued as it belongs to the file
+        assertThat(ClientFactory.saveIncrementally(client, file), is(false));
+
+        assertThat(ClientFactory.save(client, file, null, null, () -> true), is(true));
+        assertThat(journal.exists(), is(false));
+        assertThat(load().getAccounts().size(), is(client.getAccounts().size()));
+    }
+
+    @Test
+    public void testJournalIsNotContinuedIfFileCannotBeReplaced() throws IOException
+    {
+        Client client = load();
+        client.addAccount(new Account("Account"));
+
+        // replacing the file fails if the temporary file is gone
+        IOException exception = null;
+        try
+        {
+            ClientFactory.save(client, file, null, null, () -> new File(file.getPath() + ".tmp").delete());
+        }
+        catch (IOException e)
+        {
+            exception = e;
+        }
+        assertThat(exception != null, is(true));
+
+        assertThat(ClientFactory.saveIncrementally(client, file), is(false));
+        assertThat(load().getAccounts().size(), is(client.getAccounts().size() - 1));
+    }
+
+    @Test
+    public void testQuotesUpdatedWhileSavingAreAppendedAfterwards() throws IOException
+    {
+        Client client = load();
+        Security security = client.getSecurities().get(0);
+        SecurityPrice last = security.getPrices().get(security.getPrices().size() - 1);
+
+        // the quotes are updated after the file has been written, but before
+        // it replaces the file
+        assertThat(ClientFactory.save(client, file, null, null, () -> {
+            security.addPrice(new SecurityPrice(last.getTime().plusDays(1), 1000));
+            return true;
+        }), is(true));
+
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+        assertThat(journal.exists(), is(true));
+        assertSameQuotes(load(), client);
+    }
+
+    @Test
+    public void testUnchangedClientIsNotAppendedAfterSaving() throws IOException
+    {
+        Client client = load();
+        client.getSecurities().get(0).setLatest(new LatestSecurityPrice(LocalDate.parse("2016-01-04"), 1234));
+
+        ClientFactory.save(client, file, null, null);
+
+        assertThat(ClientFactory.saveIncrementally(client, file), is(true));
+        assertThat(journal.exists(), is(false));
+        assertSameQuotes(load(), client);
+    }
+
+    @Test
+    public void testJournalIsCompactedWhenGrowingTooLarge() throws IOException
+    {
+        Client client = load();
+
+        boolean appended = true;
+        for (int ii = 0; appended && ii < 100; ii++)
+        {
+            client.addAccount(new Account("Account " + ii));
+            appended = ClientFactory.saveIncrementally(client, file);
+        }
+        assertThat(appended, is(false));
+        assertThat(journal.length() * 2 <= file.length(), is(true));
+
+        File stale = folder.newFile();
+        Files.copy(journal.toPath(), stale.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        ClientFactory.save(client, file, null, null);
+        assertThat(journal.exists(), is(false));
+
+        // a journal of an earlier generation is ignored
+        Files.copy(stale.toPath(), journal.toPath());
+
+        Client loaded = load();
+        assertThat(loaded.getAccounts().size(), is(client.getAccounts().size()));
+        assertSameQuotes(loaded, client);
+    }
+}
@@ -0,0 +1,147 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import name.abuchen.portfolio.money.CurrencyUnit;
+import name.abuchen.portfolio.money.Money;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class ClientXmlReaderTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String toXML(Client client) throws IOException
+    {
+        File file = folder.newFile();
+        ClientFactory.save(client, file, null, null);
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private void assertRoundTrip(Client client) throws IOException, XMLStreamException
+    {
+        String xml = toXML(client);
+        Client loaded = ClientXmlReader.read(new StringReader(xml));
+        assertThat(toXML(loaded), is(xml));
+    }
+
+    @Test
+    public void testScenarios() throws IOException, XMLStreamException
+    {
+        for (String scenario : new String[] { "currency_sample.xml", "volatility.xml",
+                        "security_performance_tax_refund.xml" })
+        {
+            Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/" + scenario));
+            assertRoundTrip(client);
+        }
+    }
+
+    @Test
+    public void testReferencesAndAttributes() throws IOException, XMLStreamException
+    {
+        Client client = new Client();
+
+        Security security = new Security("Security <&>", CurrencyUnit.EUR);
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 1000));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 1100));
+        security.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-06"), 1200));
+        security.addEvent(new SecurityEvent(LocalDate.parse("2015-01-03"), SecurityEvent.Type.STOCK_SPLIT, "1:2"));
+        client.getSettings().getAttributeTypes().forEach(t -> {
+            if (t.getType() == Double.class)
+                security.getAttributes().put(t, 0.5);
+            else if (t.getType() == Long.class)
+                security.getAttributes().put(t, 42L);
+        });
+        client.addSecurity(security);
+
+        Security index = new Security("Index", null);
+        client.addSecurity(index);
+
+        Account account = new Account("Account");
+        client.addAccount(account);
+        Account other = new Account("Other");
+        other.setCurrencyCode("USD");
+        client.addAccount(other);
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setName("Portfolio");
+        portfolio.setReferenceAccount(account);
+        client.addPortfolio(portfolio);
+
+        BuySellEntry buy = new BuySellEntry(portfolio, account);
+        buy.setType(PortfolioTransaction.Type.BUY);
+        buy.setDate(LocalDate.parse("2015-01-05"));
+        buy.setSecurity(security);
+        buy.setShares(Values.Share.factorize(10));
+        buy.setMonetaryAmount(Money.of(CurrencyUnit.EUR, 11000));
+        buy.insert();
+
+        AccountTransferEntry transfer = new AccountTransferEntry(account, other);
+        transfer.setDate(LocalDate.parse("2015-01-08"));
+        transfer.setAmount(1000);
+        transfer.setCurrencyCode(CurrencyUnit.EUR);
+        transfer.getTargetTransaction().setMonetaryAmount(Money.of("USD", 1200));
+        transfer.getTargetTransaction().addUnit(new Transaction.Unit(Transaction.Unit.Type.GROSS_VALUE,
+                        Money.of("USD", 1200), Money.of(CurrencyUnit.EUR, 1000), new BigDecimal("1.2")));
+        transfer.insert();
+
+        Watchlist watchlist = new Watchlist();
+        watchlist.setName("Watchlist");
+        watchlist.addSecurity(security);
+        watchlist.addSecurity(index);
+        client.getWatchlists().add(watchlist);
+
+        Taxonomy taxonomy = new Taxonomy("Taxonomy");
+        taxonomy.setDimensions(Arrays.asList("a", "b"));
+        Classification root = new Classification("root", "Root");
+        taxonomy.setRootNode(root);
+        Classification child = new Classification(root, "child", "Child");
+        root.addChild(child);
+        child.addAssignment(new Classification.Assignment(security));
+        child.addAssignment(new Classification.Assignment(account));
+        client.addTaxonomy(taxonomy);
+
+        client.setProperty("key", "value");
+
+        assertRoundTrip(client);
+
+        Client loaded = ClientXmlReader.read(new StringReader(toXML(client)));
+
+        Security loadedSecurity = loaded.getSecurities().get(0);
+        assertThat(loaded.getWatchlists().get(0).getSecurities().get(0), is(sameInstance(loadedSecurity)));
+        assertThat(loaded.getTaxonomies().get(0).getRoot().getChildren().get(0).getAssignments().get(0)
+                        .getInvestmentVehicle(), is(sameInstance(loadedSecurity)));
+
+        PortfolioTransaction loadedBuy = loaded.getPortfolios().get(0).getTransactions().get(0);
+        assertThat(loadedBuy.getSecurity(), is(sameInstance(loadedSecurity)));
+        BuySellEntry loadedEntry = (BuySellEntry) loadedBuy.getCrossEntry();
+        assertThat(loadedEntry.getPortfolioTransaction(), is(sameInstance(loadedBuy)));
+        assertThat(loadedEntry.getAccount(), is(sameInstance(loaded.getAccounts().get(0))));
+        assertThat(loadedEntry.getAccountTransaction(),
+                        is(sameInstance(loaded.getAccounts().get(0).getTransactions().get(0))));
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testUnknownElementIsRejected() throws XMLStreamException
+    {
+        ClientXmlReader.read(new StringReader("<client><version>30</version><unknown/></client>"));
+    }
+}
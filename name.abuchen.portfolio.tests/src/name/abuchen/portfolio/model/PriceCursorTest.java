@@ -0,0 +1,68 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class PriceCursorTest
+{
+    private void assertIdenticalToSecurityPrice(Security security, LocalDate start, LocalDate end)
+    {
+        PriceCursor cursor = security.priceCursor();
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1))
+            assertThat(date.toString(), cursor.advanceTo(date), is(security.getSecurityPrice(date).getValue()));
+    }
+
+    private Security createSecurity()
+    {
+        Security security = new Security();
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 100));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 200));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-06"), 300));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-12"), 400));
+        return security;
+    }
+
+    @Test
+    public void testHistoricalQuotes()
+    {
+        assertIdenticalToSecurityPrice(createSecurity(), LocalDate.parse("2014-12-25"), LocalDate.parse("2015-01-20"));
+    }
+
+    @Test
+    public void testWithoutQuotes()
+    {
+        Security security = new Security();
+        assertIdenticalToSecurityPrice(security, LocalDate.parse("2014-12-25"), LocalDate.parse("2015-01-20"));
+
+        security.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-10"), 500));
+        assertIdenticalToSecurityPrice(security, LocalDate.parse("2014-12-25"), LocalDate.parse("2015-01-20"));
+    }
+
+    @Test
+    public void testLatestQuote()
+    {
+        Security security = createSecurity();
+        security.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-15"), 500));
+        assertIdenticalToSecurityPrice(security, LocalDate.parse("2014-12-25"), LocalDate.parse("2015-01-20"));
+
+        // outdated latest quote
+        security.setLatest(new LatestSecurityPrice(LocalDate.parse("2015-01-08"), 600));
+        assertIdenticalToSecurityPrice(security, LocalDate.parse("2014-12-25"), LocalDate.parse("2015-01-20"));
+    }
+
+    @Test
+    public void testMovingBackwards()
+    {
+        Security security = createSecurity();
+        PriceCursor cursor = security.priceCursor();
+
+        assertThat(cursor.advanceTo(LocalDate.parse("2015-01-13")), is(400L));
+        assertThat(cursor.advanceTo(LocalDate.parse("2015-01-05")), is(200L));
+        assertThat(cursor.advanceTo(LocalDate.parse("2015-01-07")), is(300L));
+    }
+}
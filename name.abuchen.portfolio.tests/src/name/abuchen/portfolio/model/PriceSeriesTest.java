@@ -0,0 +1,100 @@
+package name.abuchen.portfolio.model;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class PriceSeriesTest
+{
+    @Test
+    public void testPricesAreKeptSortedByDate()
+    {
+        Security security = new Security();
+        assertThat(security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 300)), is(true));
+        assertThat(security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-01"), 100)), is(true));
+        assertThat(security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-03"), 200)), is(true));
+
+        assertThat(security.getPrices().size(), is(3));
+        assertThat(security.getPrices().get(0), is(new SecurityPrice(LocalDate.parse("2015-01-01"), 100)));
+        assertThat(security.getPrices().get(1), is(new SecurityPrice(LocalDate.parse("2015-01-03"), 200)));
+        assertThat(security.getPrices().get(2), is(new SecurityPrice(LocalDate.parse("2015-01-05"), 300)));
+
+        // replace only if the value differs
+        assertThat(security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-03"), 200)), is(false));
+        assertThat(security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-03"), 250)), is(true));
+        assertThat(security.getPrices().size(), is(3));
+        assertThat(security.getPrices().get(1).getValue(), is(250L));
+
+        security.removePrice(new SecurityPrice(LocalDate.parse("2015-01-01"), 100));
+        assertThat(security.getPrices().size(), is(2));
+        assertThat(security.getPrices().get(0).getTime(), is(LocalDate.parse("2015-01-03")));
+    }
+
+    @Test
+    public void testMergePrices()
+    {
+        Security security = new Security();
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 100));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 200));
+
+        // unsorted, with duplicates, replacing one and keeping one
+        int changed = security.mergePrices(Arrays.asList( //
+                        new SecurityPrice(LocalDate.parse("2015-01-06"), 300),
+                        new SecurityPrice(LocalDate.parse("2015-01-01"), 50),
+                        new SecurityPrice(LocalDate.parse("2015-01-02"), 100),
+                        new SecurityPrice(LocalDate.parse("2015-01-05"), 210),
+                        new SecurityPrice(LocalDate.parse("2015-01-06"), 310)));
+
+        assertThat(changed, is(3));
+        assertThat(security.getPrices(), is(Arrays.asList( //
+                        new SecurityPrice(LocalDate.parse("2015-01-01"), 50),
+                        new SecurityPrice(LocalDate.parse("2015-01-02"), 100),
+                        new SecurityPrice(LocalDate.parse("2015-01-05"), 210),
+                        new SecurityPrice(LocalDate.parse("2015-01-06"), 310))));
+
+        // append
+        changed = security.mergePrices(Arrays.asList( //
+                        new SecurityPrice(LocalDate.parse("2015-01-07"), 400),
+                        new SecurityPrice(LocalDate.parse("2015-01-08"), 500)));
+        assertThat(changed, is(2));
+        assertThat(security.getPrices().size(), is(6));
+        assertThat(security.getSecurityPrice(LocalDate.parse("2015-01-09")).getValue(), is(500L));
+
+        assertThat(security.mergePrices(Arrays.asList(new SecurityPrice(LocalDate.parse("2015-01-07"), 400))),
+                        is(0));
+    }
+
+    @Test
+    public void testSecurityPriceAtDate()
+    {
+        Security security = new Security();
+        assertThat(security.getSecurityPrice(LocalDate.parse("2015-01-01")).getValue(), is(0L));
+
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 100));
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-05"), 200));
+
+        assertThat(security.getSecurityPrice(LocalDate.parse("2015-01-01")).getValue(), is(100L));
+        assertThat(security.getSecurityPrice(LocalDate.parse("2015-01-02")).getValue(), is(100L));
+        assertThat(security.getSecurityPrice(LocalDate.parse("2015-01-04")).getValue(), is(100L));
+        assertThat(security.getSecurityPrice(LocalDate.parse("2015-01-05")).getValue(), is(200L));
+        assertThat(security.getSecurityPrice(LocalDate.parse("2016-01-01")).getValue(), is(200L));
+    }
+
+    @Test
+    public void testDeepCopyDoesNotShareSeries()
+    {
+        Security security = new Security();
+        security.addPrice(new SecurityPrice(LocalDate.parse("2015-01-02"), 100));
+
+        Security copy = security.deepCopy();
+        copy.addPrice(new SecurityPrice(LocalDate.parse("2015-01-03"), 100));
+
+        assertThat(security.getPrices().size(), is(1));
+        assertThat(copy.getPrices().size(), is(2));
+    }
+}
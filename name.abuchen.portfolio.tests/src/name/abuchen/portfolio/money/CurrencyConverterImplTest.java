@@ -0,0 +1,79 @@
+package name.abuchen.portfolio.money;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class CurrencyConverterImplTest
+{
+    private static long exact(ExchangeRate rate, long amount)
+    {
+        return Math.round(rate.getValue().multiply(BigDecimal.valueOf(amount)).doubleValue());
+    }
+
+    @Test
+    public void testConversionIsIdenticalToBigDecimalCalculation()
+    {
+        Random random = new Random(42);
+        LocalDate date = LocalDate.parse("2015-01-01");
+
+        for (int ii = 0; ii < 10_000; ii++)
+        {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(100_000_000) + 1, 8 + random.nextInt(3));
+            ExchangeRate rate = new ExchangeRate(date, value);
+            ExchangeRate inverse = rate.inverse();
+
+            long amount = random.nextInt(2) == 0 ? random.nextInt(1_000_000) : random.nextLong() >> 20;
+
+            assertThat(rate + " * " + amount, CurrencyConverterImpl.convert(rate, amount), is(exact(rate, amount)));
+            assertThat(inverse + " * " + amount, CurrencyConverterImpl.convert(inverse, amount),
+                            is(exact(inverse, amount)));
+        }
+    }
+
+    @Test
+    public void testRoundingBoundary()
+    {
+        LocalDate date = LocalDate.parse("2015-01-01");
+
+        ExchangeRate half = new ExchangeRate(date, new BigDecimal("0.5"));
+        assertThat(CurrencyConverterImpl.convert(half, 3), is(2L));
+        assertThat(CurrencyConverterImpl.convert(half, -3), is(-1L));
+
+        ExchangeRate rate = new ExchangeRate(date, new BigDecimal("1.2345"));
+        assertThat(CurrencyConverterImpl.convert(rate, 10), is(12L));
+        assertThat(CurrencyConverterImpl.convert(rate, 100), is(123L));
+        assertThat(CurrencyConverterImpl.convert(rate, 1000), is(1235L));
+    }
+
+    @Test
+    public void testBatchConversionIsIdenticalToSingleConversion()
+    {
+        CurrencyConverter converter = new ExchangeRateProviderFactory().getCurrencyConverter("EUR");
+
+        int start = (int) LocalDate.parse("2015-12-01").toEpochDay();
+        int[] epochDays = new int[60];
+        long[] amounts = new long[epochDays.length];
+        for (int ii = 0; ii < epochDays.length; ii++)
+        {
+            epochDays[ii] = start + ii;
+            amounts[ii] = ii * 12345L - 100_000L;
+        }
+
+        for (String currency : new String[] { "EUR", "USD", "CHF", "GBX" })
+        {
+            long[] converted = new long[amounts.length];
+            converter.convert(currency, epochDays, amounts, converted);
+
+            for (int ii = 0; ii < amounts.length; ii++)
+                assertThat(currency + " " + ii, converted[ii],
+                                is(converter.convert(LocalDate.ofEpochDay(epochDays[ii]), currency, amounts[ii])));
+        }
+    }
+}
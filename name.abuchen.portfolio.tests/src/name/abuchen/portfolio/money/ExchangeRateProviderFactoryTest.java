@@ -0,0 +1,35 @@
+package name.abuchen.portfolio.money;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class ExchangeRateProviderFactoryTest
+{
+    @Test
+    public void testConvertersAreSharedPerTermCurrency()
+    {
+        ExchangeRateProviderFactory factory = new ExchangeRateProviderFactory();
+
+        CurrencyConverter converter = factory.getCurrencyConverter("EUR");
+        assertThat(factory.getCurrencyConverter("EUR"), is(sameInstance(converter)));
+        assertThat(converter.with("EUR"), is(sameInstance(converter)));
+        assertThat(converter.with("USD"), is(sameInstance(factory.getCurrencyConverter("USD"))));
+    }
+
+    @Test
+    public void testTimeSeriesAreCachedUntilInvalidated()
+    {
+        ExchangeRateProviderFactory factory = new ExchangeRateProviderFactory();
+
+        ExchangeRateTimeSeries series = factory.getTimeSeries("USD", "CHF");
+        assertThat(factory.getTimeSeries("USD", "CHF"), is(sameInstance(series)));
+
+        factory.invalidateCache();
+        assertThat(factory.getTimeSeries("USD", "CHF"), is(not(sameInstance(series))));
+    }
+}
@@ -0,0 +1,80 @@
+package name.abuchen.portfolio.money;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.number.OrderingComparison.comparesEqualTo;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.money.impl.ChainedExchangeRateTimeSeries;
+import name.abuchen.portfolio.money.impl.ExchangeRateTimeSeriesImpl;
+import name.abuchen.portfolio.money.impl.InverseExchangeRateTimeSeries;
+
+@SuppressWarnings("nls")
+public class MaterializedExchangeRateTimeSeriesTest
+{
+    private ExchangeRateTimeSeriesImpl usd()
+    {
+        ExchangeRateTimeSeriesImpl series = new ExchangeRateTimeSeriesImpl(null, "EUR", "USD");
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-02"), new BigDecimal("1.2023")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-05"), new BigDecimal("1.1915")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-06"), new BigDecimal("1.1914")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-07"), new BigDecimal("1.1914")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-12"), new BigDecimal("1.1836")));
+        return series;
+    }
+
+    private ExchangeRateTimeSeriesImpl chf()
+    {
+        ExchangeRateTimeSeriesImpl series = new ExchangeRateTimeSeriesImpl(null, "EUR", "CHF");
+        series.addRate(new ExchangeRate(LocalDate.parse("2014-12-30"), new BigDecimal("1.2024")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-15"), new BigDecimal("1.0280")));
+        return series;
+    }
+
+    private void assertIdenticalToSource(ExchangeRateTimeSeries source)
+    {
+        ExchangeRateTimeSeries materialized = MaterializedExchangeRateTimeSeries.of(source);
+
+        assertThat(materialized.getBaseCurrency(), is(source.getBaseCurrency()));
+        assertThat(materialized.getTermCurrency(), is(source.getTermCurrency()));
+
+        for (LocalDate date = LocalDate.parse("2014-12-25"); date.isBefore(LocalDate.parse("2015-01-20")); date = date
+                        .plusDays(1))
+        {
+            assertThat(date.toString(), materialized.lookupRate(date).get().getValue(),
+                            comparesEqualTo(source.lookupRate(date).get().getValue()));
+
+            int epochDay = (int) date.toEpochDay();
+            assertThat(date.toString(), materialized.getDailyRates().getValue(epochDay),
+                            is(source.getDailyRates().getValue(epochDay)));
+        }
+    }
+
+    @Test
+    public void testInverseSeries()
+    {
+        ExchangeRateTimeSeries inverse = new InverseExchangeRateTimeSeries(usd());
+        assertIdenticalToSource(inverse);
+
+        // one rate per change of value
+        assertThat(MaterializedExchangeRateTimeSeries.of(inverse).getRates().size(), is(4));
+    }
+
+    @Test
+    public void testChainedSeries()
+    {
+        ExchangeRateTimeSeries chained = new ChainedExchangeRateTimeSeries(new InverseExchangeRateTimeSeries(usd()),
+                        chf());
+        assertIdenticalToSource(chained);
+
+        ExchangeRateTimeSeries materialized = MaterializedExchangeRateTimeSeries.of(chained);
+        assertThat(materialized.getRates().get(0).getTime(), is(LocalDate.parse("2014-12-30")));
+        assertThat(materialized.lookupRate(LocalDate.parse("2015-01-08")).get(),
+                        is(sameInstance(materialized.lookupRate(LocalDate.parse("2015-01-09")).get())));
+    }
+}
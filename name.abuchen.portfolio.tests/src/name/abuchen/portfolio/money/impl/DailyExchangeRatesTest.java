@@ -0,0 +1,102 @@
+package name.abuchen.portfolio.money.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.money.DailyExchangeRates;
+import name.abuchen.portfolio.money.ExchangeRate;
+import name.abuchen.portfolio.money.ExchangeRateTimeSeries;
+
+@SuppressWarnings("nls")
+public class DailyExchangeRatesTest
+{
+    private ExchangeRateTimeSeriesImpl createSeries(String termCurrency)
+    {
+        ExchangeRateTimeSeriesImpl series = new ExchangeRateTimeSeriesImpl(null, "EUR", termCurrency);
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-02"), new BigDecimal("1.2023")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-05"), new BigDecimal("1.1915")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-06"), new BigDecimal("1.1914")));
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-12"), new BigDecimal("1.1836")));
+        return series;
+    }
+
+    private void assertIdenticalToLookup(ExchangeRateTimeSeries series)
+    {
+        DailyExchangeRates daily = series.getDailyRates();
+
+        for (LocalDate date = LocalDate.parse("2014-12-25"); date.isBefore(LocalDate.parse("2015-01-20")); date = date
+                        .plusDays(1))
+        {
+            ExchangeRate rate = series.lookupRate(date).get();
+            int epochDay = (int) date.toEpochDay();
+
+            assertThat(date.toString(), daily.getValue(epochDay), is(rate.getValue().doubleValue()));
+
+            for (long amount : new long[] { 1, 50, 12345, -98765, 1234567890L })
+                assertThat(date + " " + amount, daily.convert(epochDay, amount),
+                                is(Math.round(rate.getValue().multiply(BigDecimal.valueOf(amount)).doubleValue())));
+        }
+    }
+
+    @Test
+    public void testRatesAreForwardFilled()
+    {
+        ExchangeRateTimeSeriesImpl series = createSeries("USD");
+
+        DailyExchangeRates daily = series.getDailyRates();
+        assertThat(daily.getFirstDate(), is(LocalDate.parse("2015-01-02")));
+        assertThat(daily.getLastDate(), is(LocalDate.parse("2015-01-12")));
+
+        assertIdenticalToLookup(series);
+    }
+
+    @Test
+    public void testInverseAndChainedRates()
+    {
+        ExchangeRateTimeSeriesImpl usd = createSeries("USD");
+        ExchangeRateTimeSeriesImpl chf = new ExchangeRateTimeSeriesImpl(null, "EUR", "CHF");
+        chf.addRate(new ExchangeRate(LocalDate.parse("2014-12-30"), new BigDecimal("1.2024")));
+        chf.addRate(new ExchangeRate(LocalDate.parse("2015-01-15"), new BigDecimal("1.0280")));
+
+        assertIdenticalToLookup(new InverseExchangeRateTimeSeries(usd));
+        assertIdenticalToLookup(new ChainedExchangeRateTimeSeries(new InverseExchangeRateTimeSeries(usd), chf));
+    }
+
+    @Test
+    public void testRatesAreRebuiltAfterUpdate()
+    {
+        ExchangeRateTimeSeriesImpl series = createSeries("USD");
+        InverseExchangeRateTimeSeries inverse = new InverseExchangeRateTimeSeries(series);
+
+        DailyExchangeRates daily = series.getDailyRates();
+        DailyExchangeRates inverseDaily = inverse.getDailyRates();
+        assertThat(series.getDailyRates(), is(sameInstance(daily)));
+        assertThat(inverse.getDailyRates(), is(sameInstance(inverseDaily)));
+
+        series.addRate(new ExchangeRate(LocalDate.parse("2015-01-16"), new BigDecimal("1.1573")));
+
+        assertThat(series.getDailyRates(), is(not(sameInstance(daily))));
+        assertThat(inverse.getDailyRates(), is(not(sameInstance(inverseDaily))));
+        assertThat(series.getDailyRates().getLastDate(), is(LocalDate.parse("2015-01-16")));
+
+        assertIdenticalToLookup(series);
+        assertIdenticalToLookup(inverse);
+    }
+
+    @Test
+    public void testIfNoRatesExist()
+    {
+        ExchangeRateTimeSeriesImpl series = new ExchangeRateTimeSeriesImpl(null, "EUR", "USD");
+
+        assertThat(series.getDailyRates(), is(nullValue()));
+        assertThat(new InverseExchangeRateTimeSeries(series).getDailyRates(), is(nullValue()));
+    }
+}
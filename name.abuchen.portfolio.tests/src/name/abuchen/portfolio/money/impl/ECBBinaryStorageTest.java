@@ -0,0 +1,114 @@
+package name.abuchen.portfolio.money.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import name.abuchen.portfolio.money.ExchangeRate;
+
+@SuppressWarnings("nls")
+public class ECBBinaryStorageTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ECBData createData()
+    {
+        ECBData data = new ECBData();
+        data.setLastModified(1450429200000L);
+
+        ExchangeRateTimeSeriesImpl usd = new ExchangeRateTimeSeriesImpl(null, "EUR", "USD");
+        usd.addRate(new ExchangeRate(LocalDate.parse("1999-01-04"), new BigDecimal("1.1789")));
+        usd.addRate(new ExchangeRate(LocalDate.parse("2015-12-18"), new BigDecimal("1.0836")));
+        data.addSeries(usd);
+
+        ExchangeRateTimeSeriesImpl trl = new ExchangeRateTimeSeriesImpl(null, "EUR", "TRL");
+        trl.addRate(new ExchangeRate(LocalDate.parse("2004-12-31"), BigDecimal.valueOf(1836200)));
+        data.addSeries(trl);
+
+        data.addSeries(new ExchangeRateTimeSeriesImpl(null, "EUR", "XXX"));
+
+        return data;
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException
+    {
+        File file = new File(folder.getRoot(), "rates.bin");
+        ECBData data = createData();
+
+        ECBBinaryStorage.write(data, file);
+        ECBData loaded = ECBBinaryStorage.read(file, null);
+
+        assertThat(loaded.getLastModified(), is(data.getLastModified()));
+        assertThat(loaded.getSeries().size(), is(3));
+
+        for (ExchangeRateTimeSeriesImpl series : data.getSeries())
+        {
+            ExchangeRateTimeSeriesImpl other = loaded.getCurrencyMap().get(series.getTermCurrency());
+            assertThat(other.getBaseCurrency(), is("EUR"));
+            assertThat(other.getRates(), is(series.getRates()));
+        }
+
+        // copies of a series not decoded yet decode independently
+        ECBData copy = loaded.copy();
+        copy.getCurrencyMap().get("USD")
+                        .addRate(new ExchangeRate(LocalDate.parse("2015-12-21"), new BigDecimal("1.0892")));
+        assertThat(copy.getCurrencyMap().get("USD").getRates().size(), is(3));
+        assertThat(loaded.getCurrencyMap().get("USD").getRates().size(), is(2));
+    }
+
+    @Test
+    public void testFileCanBeReplacedBeforeSeriesAreDecoded() throws IOException
+    {
+        File file = new File(folder.getRoot(), "rates.bin");
+        ECBData data = createData();
+
+        ECBBinaryStorage.write(data, file);
+        ECBData loaded = ECBBinaryStorage.read(file, null);
+
+        ECBBinaryStorage.write(new ECBData(), file);
+        assertThat(file.delete(), is(true));
+
+        assertThat(loaded.getCurrencyMap().get("USD").getRates(),
+                        is(data.getCurrencyMap().get("USD").getRates()));
+    }
+
+    @Test(expected = ECBBinaryStorage.InvalidFormatException.class)
+    public void testTruncatedFileIsRejected() throws IOException
+    {
+        File file = new File(folder.getRoot(), "rates.bin");
+        ECBBinaryStorage.write(createData(), file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+        {
+            raf.setLength(raf.length() - 1);
+        }
+
+        ECBBinaryStorage.read(file, null);
+    }
+
+    @Test(expected = ECBBinaryStorage.InvalidFormatException.class)
+    public void testUnknownVersionIsRejected() throws IOException
+    {
+        File file = new File(folder.getRoot(), "rates.bin");
+        ECBBinaryStorage.write(createData(), file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+        {
+            raf.seek(4);
+            raf.writeInt(99);
+        }
+
+        ECBBinaryStorage.read(file, null);
+    }
+}
@@ -0,0 +1,64 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class AccountBalancesTest
+{
+    @Test
+    public void testFundsAtDate()
+    {
+        Client client = new Client();
+        Account account = new AccountBuilder() //
+                        .withdraw("2010-03-01", 30 * Values.Amount.factor()) //
+                        .deposit_("2010-01-01", 100 * Values.Amount.factor()) //
+                        .interest("2010-02-01", 5 * Values.Amount.factor()) //
+                        .addTo(client);
+
+        AccountBalances balances = AccountBalances.of(client);
+
+        assertThat(balances.getFunds(account, LocalDate.parse("2009-12-31")), is(0L));
+        assertThat(balances.getFunds(account, LocalDate.parse("2010-01-01")), is(100L * Values.Amount.factor()));
+        assertThat(balances.getFunds(account, LocalDate.parse("2010-02-15")), is(105L * Values.Amount.factor()));
+        assertThat(balances.getFunds(account, LocalDate.parse("2011-01-01")), is(75L * Values.Amount.factor()));
+
+        assertThat(balances.getTransactions(account, LocalDate.parse("2010-01-02"), LocalDate.parse("2010-03-01"))
+                        .size(), is(2));
+        assertThat(balances.getTransactions(account, LocalDate.parse("2010-01-02"), LocalDate.parse("2010-01-31"))
+                        .isEmpty(), is(true));
+
+        assertThat(AccountSnapshot.create(account, null, LocalDate.parse("2010-02-15"), balances)
+                        .getUnconvertedFunds().getAmount(), is(105L * Values.Amount.factor()));
+    }
+
+    @Test
+    public void testBalancesAreRebuiltIfClientIsModified()
+    {
+        Client client = new Client();
+        Account account = new AccountBuilder() //
+                        .deposit_("2010-01-01", 100 * Values.Amount.factor()) //
+                        .addTo(client);
+
+        AccountBalances balances = AccountBalances.of(client);
+        assertThat(AccountBalances.of(client), sameInstance(balances));
+
+        account.getTransactions().get(0).setAmount(10 * Values.Amount.factor());
+        client.markDirty();
+
+        AccountBalances rebuilt = AccountBalances.of(client);
+        assertThat(rebuilt, not(sameInstance(balances)));
+        assertThat(rebuilt.getFunds(account, LocalDate.parse("2010-01-01")), is(10L * Values.Amount.factor()));
+    }
+}
@@ -0,0 +1,70 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.PortfolioBuilder;
+import name.abuchen.portfolio.SecurityBuilder;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class HoldingsLedgerTest
+{
+    @Test
+    public void testSharesHeldAtDate()
+    {
+        Client client = new Client();
+        Security security = new SecurityBuilder().addTo(client);
+
+        Portfolio portfolioA = new PortfolioBuilder() //
+                        .sell(security, "2010-03-01", 30 * Values.Share.factor(), 100) //
+                        .buy(security, "2010-01-01", 100 * Values.Share.factor(), 100) //
+                        .addTo(client);
+        Portfolio portfolioB = new PortfolioBuilder() //
+                        .buy(security, "2010-02-01", 50 * Values.Share.factor(), 100) //
+                        .addTo(client);
+
+        HoldingsLedger ledger = HoldingsLedger.of(client);
+
+        assertThat(ledger.getShares(portfolioA, security, LocalDate.parse("2009-12-31")), is(0L));
+        assertThat(ledger.getShares(portfolioA, security, LocalDate.parse("2010-01-01")),
+                        is(100L * Values.Share.factor()));
+        assertThat(ledger.getShares(portfolioA, security, LocalDate.parse("2010-03-01")),
+                        is(70L * Values.Share.factor()));
+        assertThat(ledger.getShares(security, LocalDate.parse("2010-02-15")), is(150L * Values.Share.factor()));
+        assertThat(ledger.getShares(security, LocalDate.parse("2011-01-01")), is(120L * Values.Share.factor()));
+
+        assertThat(ledger.getTransactions(portfolioA, security, LocalDate.parse("2010-02-01")).size(), is(1));
+        assertThat(ledger.getTransactions(portfolioB, security, LocalDate.parse("2010-02-01")).size(), is(1));
+    }
+
+    @Test
+    public void testLedgerIsRebuiltIfClientIsModified()
+    {
+        Client client = new Client();
+        Security security = new SecurityBuilder().addTo(client);
+        Portfolio portfolio = new PortfolioBuilder() //
+                        .buy(security, "2010-01-01", 100 * Values.Share.factor(), 100) //
+                        .addTo(client);
+
+        HoldingsLedger ledger = HoldingsLedger.of(client);
+        assertThat(HoldingsLedger.of(client), sameInstance(ledger));
+
+        portfolio.getTransactions().get(0).setShares(10 * Values.Share.factor());
+        client.markDirty();
+
+        HoldingsLedger rebuilt = HoldingsLedger.of(client);
+        assertThat(rebuilt, not(sameInstance(ledger)));
+        assertThat(rebuilt.getShares(portfolio, security, LocalDate.parse("2010-01-01")),
+                        is(10L * Values.Share.factor()));
+    }
+}
@@ -0,0 +1,85 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+@SuppressWarnings("nls")
+public class IncrementalValuationTest
+{
+    @Test
+    public void testValuationIsIdenticalToClientSnapshot() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        IncrementalValuation valuation = new IncrementalValuation(client, converter);
+
+        LocalDate date = LocalDate.parse("2014-06-01");
+        LocalDate end = LocalDate.parse("2015-09-01");
+
+        while (!date.isAfter(end))
+        {
+            long expected = ClientSnapshot.create(client, converter, date).getMonetaryAssets().getAmount();
+            assertThat(date.toString(), valuation.valueAt(date), is(expected));
+            date = date.plusDays(1);
+        }
+    }
+
+    @Test
+    public void testClientIndexTotalsAreIdenticalToClientSnapshot() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/volatility.xml"));
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2013-12-31"),
+                        LocalDate.parse("2015-03-01"));
+        ClientIndex index = PerformanceIndex.forClient(client, converter, period, new ArrayList<>());
+
+        LocalDate[] dates = index.getDates();
+        long[] totals = index.getTotals();
+
+        for (int ii = 0; ii < dates.length; ii++)
+        {
+            long expected = ClientSnapshot.create(client, converter, dates[ii]).getMonetaryAssets().getAmount();
+            assertThat(dates[ii].toString(), totals[ii], is(expected));
+        }
+    }
+
+    @Test
+    public void testParallelCalculationIsIdenticalToSequentialCalculation() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+        CurrencyConverter converter = new TestCurrencyConverter();
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2014-01-01"),
+                        LocalDate.parse("2015-12-31"));
+
+        int parallelism = PerformanceIndex.getParallelism();
+        try
+        {
+            PerformanceIndex.setParallelism(1);
+            ClientIndex sequential = PerformanceIndex.forClient(client, converter, period, new ArrayList<>());
+
+            PerformanceIndex.setParallelism(4);
+            ClientIndex parallel = PerformanceIndex.forClient(client, converter, period, new ArrayList<>());
+
+            assertThat(parallel.getDates(), is(sequential.getDates()));
+            assertThat(parallel.getTotals(), is(sequential.getTotals()));
+            assertThat(parallel.getAccumulatedPercentage(), is(sequential.getAccumulatedPercentage()));
+        }
+        finally
+        {
+            PerformanceIndex.setParallelism(parallelism);
+        }
+    }
+}
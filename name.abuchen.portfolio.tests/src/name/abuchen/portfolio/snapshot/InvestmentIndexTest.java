@@ -0,0 +1,58 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Classification;
+import name.abuchen.portfolio.model.Classification.Assignment;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+@SuppressWarnings("nls")
+public class InvestmentIndexTest
+{
+    private void assertIdenticalToClassificationIndex(String file, ReportingPeriod period) throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream(file));
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        for (Security security : client.getSecurities())
+        {
+            Classification classification = new Classification(null, null);
+            classification.addAssignment(new Assignment(security));
+
+            PerformanceIndex expected = ClassificationIndex.calculate(client, converter, classification, period,
+                            new ArrayList<>());
+            PerformanceIndex actual = PerformanceIndex.forInvestment(client, converter, security, period,
+                            new ArrayList<>());
+
+            String label = file + " " + security.getName();
+            assertThat(label, actual.getDates(), is(expected.getDates()));
+            assertThat(label, actual.getTotals(), is(expected.getTotals()));
+            assertThat(label, actual.getTransferals(), is(expected.getTransferals()));
+            assertThat(label, actual.getDividends(), is(expected.getDividends()));
+            assertThat(label, actual.getTaxes(), is(expected.getTaxes()));
+            assertThat(label, actual.getAccumulatedPercentage(), is(expected.getAccumulatedPercentage()));
+        }
+    }
+
+    @Test
+    public void testIndexIsIdenticalToClassificationIndex() throws IOException
+    {
+        assertIdenticalToClassificationIndex("/scenarios/currency_sample.xml",
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2014-01-01"), LocalDate.parse("2015-12-31")));
+        assertIdenticalToClassificationIndex("/scenarios/security_performance_tax_refund.xml",
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2013-12-06"), LocalDate.parse("2014-12-06")));
+        assertIdenticalToClassificationIndex("/scenarios/volatility.xml",
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2013-12-31"), LocalDate.parse("2015-03-01")));
+    }
+}
@@ -0,0 +1,63 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.Money;
+import name.abuchen.portfolio.util.Interval;
+
+@SuppressWarnings("nls")
+public class PriceMatrixTest
+{
+    @Test
+    public void testPricesAreForwardFilled() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+        Interval interval = Interval.of(LocalDate.parse("2014-12-20"), LocalDate.parse("2015-01-20"));
+
+        PriceMatrix matrix = new PriceMatrix.Builder(interval).addAll(client.getSecurities()).build();
+
+        assertThat(matrix.getDays(), is(32));
+        assertThat(matrix.getSecurityCount(), is(client.getSecurities().size()));
+        assertThat(matrix.indexOf(LocalDate.parse("2014-12-19")), is(-1));
+        assertThat(matrix.indexOf(LocalDate.parse("2015-01-21")), is(-1));
+
+        for (Security security : client.getSecurities())
+        {
+            for (LocalDate date = interval.getStart(); !date.isAfter(interval.getEnd()); date = date.plusDays(1))
+                assertThat(security.getName() + " " + date, matrix.getValue(security, date),
+                                is(security.getSecurityPrice(date).getValue()));
+        }
+    }
+
+    @Test
+    public void testPricesAreConvertedIntoTermCurrency() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+        Interval interval = Interval.of(LocalDate.parse("2015-01-01"), LocalDate.parse("2015-01-16"));
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        PriceMatrix matrix = new PriceMatrix.Builder(interval).addAll(client.getSecurities())
+                        .convertWith(converter).build();
+
+        for (Security security : client.getSecurities())
+        {
+            for (LocalDate date = interval.getStart(); !date.isAfter(interval.getEnd()); date = date.plusDays(1))
+            {
+                long price = security.getSecurityPrice(date).getValue();
+                long expected = converter.convert(date, Money.of(security.getCurrencyCode(), price)).getAmount();
+                assertThat(security.getName() + " " + date, matrix.getValue(security, date), is(expected));
+            }
+        }
+    }
+}
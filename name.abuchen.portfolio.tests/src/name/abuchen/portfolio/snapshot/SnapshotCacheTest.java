@@ -0,0 +1,110 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.AccountBuilder;
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.money.Values;
+
+@SuppressWarnings("nls")
+public class SnapshotCacheTest
+{
+    private Client createClient()
+    {
+        Client client = new Client();
+        new AccountBuilder() //
+                        .deposit_("2015-01-01", 100 * Values.Amount.factor()) //
+                        .addTo(client);
+        return client;
+    }
+
+    @Test
+    public void testIndexIsCachedUntilClientIsModified()
+    {
+        Client client = createClient();
+        CurrencyConverter converter = new TestCurrencyConverter();
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2015-01-01"),
+                        LocalDate.parse("2015-12-31"));
+
+        SnapshotCache cache = new SnapshotCache();
+
+        PerformanceIndex index = cache.getClientIndex(client, converter, period, new ArrayList<>());
+        assertThat(cache.getClientIndex(client, converter,
+                        new ReportingPeriod.FromXtoY(LocalDate.parse("2015-01-01"), LocalDate.parse("2015-12-31")),
+                        new ArrayList<>()), sameInstance(index));
+
+        client.setProperty("key", "value");
+
+        PerformanceIndex recalculated = cache.getClientIndex(client, converter, period, new ArrayList<>());
+        assertThat(recalculated, not(sameInstance(index)));
+        assertThat(cache.getEntryCount(), is(1));
+
+        cache.getClientSnapshot(client, converter, LocalDate.parse("2015-06-01"));
+        assertThat(cache.getEntryCount(), is(2));
+
+        cache.invalidate(client);
+        assertThat(cache.getEntryCount(), is(0));
+        assertThat(cache.getEstimatedSize(), is(0L));
+    }
+
+    @Test
+    public void testIndexIsRecalculatedAfterExchangeRatesAreUpdated()
+    {
+        Client client = createClient();
+        long[] generation = new long[] { 0 };
+        CurrencyConverter converter = new TestCurrencyConverter()
+        {
+            @Override
+            public long getGeneration()
+            {
+                return generation[0];
+            }
+        };
+        ReportingPeriod period = new ReportingPeriod.YearX(2015);
+
+        SnapshotCache cache = new SnapshotCache();
+
+        PerformanceIndex index = cache.getClientIndex(client, converter, period, new ArrayList<>());
+        assertThat(cache.getClientIndex(client, converter, period, new ArrayList<>()), sameInstance(index));
+
+        generation[0]++;
+
+        assertThat(cache.getClientIndex(client, converter, period, new ArrayList<>()), not(sameInstance(index)));
+        assertThat(cache.getEntryCount(), is(1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted()
+    {
+        Client client = createClient();
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        // room for roughly two indices of one year
+        SnapshotCache cache = new SnapshotCache(2 * 366 * 100);
+
+        ReportingPeriod first = new ReportingPeriod.YearX(2013);
+        ReportingPeriod second = new ReportingPeriod.YearX(2014);
+        ReportingPeriod third = new ReportingPeriod.YearX(2015);
+
+        PerformanceIndex index = cache.getClientIndex(client, converter, first, new ArrayList<>());
+        cache.getClientIndex(client, converter, second, new ArrayList<>());
+
+        // access first index again so that second is the eldest entry
+        assertThat(cache.getClientIndex(client, converter, first, new ArrayList<>()), sameInstance(index));
+
+        cache.getClientIndex(client, converter, third, new ArrayList<>());
+
+        assertThat(cache.getEntryCount(), is(2));
+        assertThat(cache.getClientIndex(client, converter, first, new ArrayList<>()), sameInstance(index));
+    }
+}
@@ -0,0 +1,63 @@
+package name.abuchen.portfolio.snapshot;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+import name.abuchen.portfolio.model.InvestmentVehicle;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+@SuppressWarnings("nls")
+public class VehicleValuationStreamTest
+{
+    private void assertIdenticalToClientSnapshot(String file, LocalDate start, LocalDate end) throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream(file));
+        CurrencyConverter converter = new TestCurrencyConverter();
+
+        VehicleValuationStream stream = new VehicleValuationStream(client, converter);
+
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusWeeks(1))
+        {
+            ClientSnapshot snapshot = ClientSnapshot.create(client, converter, date);
+
+            Map<InvestmentVehicle, Long> expected = new HashMap<>();
+            snapshot.getPositionsByVehicle().forEach((v, p) -> expected.put(v, p.getValuation().getAmount()));
+
+            Map<InvestmentVehicle, Long> actual = new HashMap<>();
+            long total = stream.advanceTo(date, actual::put);
+
+            String label = file + " " + date;
+            assertThat(label, actual, is(expected));
+            assertThat(label, total, is(snapshot.getMonetaryAssets().getAmount()));
+        }
+    }
+
+    @Test
+    public void testValuesAreIdenticalToClientSnapshot() throws IOException
+    {
+        assertIdenticalToClientSnapshot("/scenarios/currency_sample.xml", LocalDate.parse("2014-01-01"),
+                        LocalDate.parse("2015-12-31"));
+        assertIdenticalToClientSnapshot("/scenarios/security_performance_tax_refund.xml",
+                        LocalDate.parse("2013-12-06"), LocalDate.parse("2014-12-06"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDatesMustBeAscending()
+    {
+        VehicleValuationStream stream = new VehicleValuationStream(new Client(), new TestCurrencyConverter());
+        stream.advanceTo(LocalDate.parse("2015-01-01"), (v, value) -> {
+        });
+        stream.advanceTo(LocalDate.parse("2014-01-01"), (v, value) -> {
+        });
+    }
+}
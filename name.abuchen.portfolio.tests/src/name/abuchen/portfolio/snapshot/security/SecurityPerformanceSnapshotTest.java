@@ -0,0 +1,60 @@
+package name.abuchen.portfolio.snapshot.security;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+import name.abuchen.portfolio.TestCurrencyConverter;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.snapshot.PerformanceIndex;
+import name.abuchen.portfolio.snapshot.ReportingPeriod;
+
+@SuppressWarnings("nls")
+public class SecurityPerformanceSnapshotTest
+{
+    @Test
+    public void testParallelCalculationIsIdenticalToSequentialCalculation() throws IOException
+    {
+        Client client = ClientFactory.load(getClass().getResourceAsStream("/scenarios/currency_sample.xml"));
+        CurrencyConverter converter = new TestCurrencyConverter();
+        ReportingPeriod period = new ReportingPeriod.FromXtoY(LocalDate.parse("2014-01-01"),
+                        LocalDate.parse("2015-12-31"));
+
+        int parallelism = PerformanceIndex.getParallelism();
+        try
+        {
+            PerformanceIndex.setParallelism(1);
+            List<SecurityPerformanceRecord> sequential = SecurityPerformanceSnapshot
+                            .create(client, converter, period).getRecords();
+
+            PerformanceIndex.setParallelism(4);
+            List<SecurityPerformanceRecord> parallel = SecurityPerformanceSnapshot.create(client, converter, period)
+                            .getRecords();
+
+            assertThat(parallel.size(), is(sequential.size()));
+            for (int ii = 0; ii < sequential.size(); ii++)
+            {
+                SecurityPerformanceRecord expected = sequential.get(ii);
+                SecurityPerformanceRecord actual = parallel.get(ii);
+
+                assertThat(actual.getSecurity(), is(expected.getSecurity()));
+                assertThat(actual.getIrr(), is(expected.getIrr()));
+                assertThat(actual.getTrueTimeWeightedRateOfReturn(), is(expected.getTrueTimeWeightedRateOfReturn()));
+                assertThat(actual.getMaxDrawdown(), is(expected.getMaxDrawdown()));
+                assertThat(actual.getFifoCost(), is(expected.getFifoCost()));
+                assertThat(actual.getSumOfDividends(), is(expected.getSumOfDividends()));
+            }
+        }
+        finally
+        {
+            PerformanceIndex.setParallelism(parallelism);
+        }
+    }
+}
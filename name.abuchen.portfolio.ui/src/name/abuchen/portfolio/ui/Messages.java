@@ -301,6 +301,7 @@ public class Messages extends NLS
     public static String JobMsgLoadingExchanges;
     public static String JobMsgRunningConsistencyChecks;
     public static String JobMsgSamplingHistoricalQuotes;
+    public static String JobMsgSavingFile;
     public static String JobMsgUpdatingQuotesFor;
     public static String LabelAbout;
     public static String JurisdictionFilesDownloadExplanation;
@@ -539,6 +540,7 @@ public class Messages extends NLS
     public static String PrefCheckOnStartup;
     public static String PrefCreateBackupBeforeSaving;
     public static String PrefDescriptionProxy;
+    public static String PrefLabelCalculationParallelism;
     public static String PrefLabelNote;
     public static String PrefLabelProxyHost;
     public static String PrefLabelProxyPort;
@@ -56,6 +56,7 @@ import org.eclipse.swt.widgets.Text;
 import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.ClientFactory;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
+import name.abuchen.portfolio.snapshot.SnapshotCache;
 import name.abuchen.portfolio.ui.dialogs.PasswordDialog;
 import name.abuchen.portfolio.ui.views.ExceptionView;
 import name.abuchen.portfolio.ui.wizards.client.ClientMigrationDialog;
@@ -96,6 +97,7 @@ public class PortfolioPart implements LoadClientThread.Callback
 
     private PreferenceStore preferenceStore = new PreferenceStore();
     private Job regularQuoteUpdateJob;
+    private SaveClientJob saveJob;
 
     private Composite container;
     private PageBook book;
@@ -116,6 +118,9 @@ public class PortfolioPart implements LoadClientThread.Callback
     @Preference
     IEclipsePreferences preferences;
 
+    @Inject
+    SnapshotCache snapshotCache;
+
     @PostConstruct
     public void createComposite(Composite parent, MPart part) throws IOException
     {
@@ -328,6 +333,9 @@ public class PortfolioPart implements LoadClientThread.Callback
 
         if (regularQuoteUpdateJob != null)
             regularQuoteUpdateJob.cancel();
+
+        if (client != null)
+            snapshotCache.invalidate(client);
     }
 
     @Persist
@@ -339,14 +347,32 @@ public class PortfolioPart implements LoadClientThread.Callback
             return;
         }
 
+        // the file must be written when returning, e.g. when closing the part
+        if (saveJob != null)
+        {
+            saveJob.cancel();
+            try
+            {
+                saveJob.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
         try
         {
             part.getPersistedState().put(UIConstants.File.PERSISTED_STATE_KEY, clientFile.getAbsolutePath());
 
-            if (preferences.getBoolean(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, true))
-                createBackup(shell, clientFile);
+            // binary files are written anew only if the journal grew too large
+            if (!ClientFactory.saveIncrementally(client, clientFile))
+            {
+                if (preferences.getBoolean(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, true))
+                    createBackup(shell, clientFile);
 
-            ClientFactory.save(client, clientFile, null, null);
+                ClientFactory.save(client, clientFile, null, null);
+            }
             broker.post(UIConstants.Event.File.SAVED, clientFile.getAbsolutePath());
             dirty.setDirty(false);
 
@@ -359,20 +385,96 @@ public class PortfolioPart implements LoadClientThread.Callback
         }
     }
 
+    /**
+     * Saves the file without blocking the UI thread. Appending to the journal
+     * of binary files is cheap and done right away, otherwise the file is
+     * written by a {@link SaveClientJob}.
+     */
+    public void saveInBackground(MPart part, Shell shell)
+    {
+        if (clientFile == null)
+        {
+            doSaveAs(part, shell, null, null);
+            return;
+        }
+
+        part.getPersistedState().put(UIConstants.File.PERSISTED_STATE_KEY, clientFile.getAbsolutePath());
+
+        if (saveJob == null || !saveJob.getFile().equals(clientFile))
+            saveJob = new SaveClientJob(client, clientFile, new SaveCallback());
+
+        // a pending save writes the file anew anyway
+        if (saveJob.getState() == Job.NONE)
+        {
+            try
+            {
+                if (ClientFactory.saveIncrementally(client, clientFile))
+                {
+                    broker.post(UIConstants.Event.File.SAVED, clientFile.getAbsolutePath());
+                    dirty.setDirty(false);
+                    storePreferences();
+                    return;
+                }
+            }
+            catch (IOException e)
+            {
+                ErrorDialog.openError(shell, Messages.LabelError, e.getMessage(),
+                                new Status(Status.ERROR, PortfolioPlugin.PLUGIN_ID, e.getMessage(), e));
+                return;
+            }
+        }
+
+        saveJob.schedule();
+    }
+
+    private class SaveCallback implements SaveClientJob.Callback
+    {
+        @Override
+        public void beforeSave(File file)
+        {
+            if (!preferences.getBoolean(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, true))
+                return;
+
+            try
+            {
+                copyToBackup(file);
+            }
+            catch (IOException e)
+            {
+                PortfolioPlugin.log(e);
+                Display.getDefault().asyncExec(() -> MessageDialog.openError(Display.getDefault().getActiveShell(),
+                                Messages.LabelError, e.getMessage()));
+            }
+        }
+
+        @Override
+        public void saved(File file, long revision)
+        {
+            Display.getDefault().asyncExec(() -> {
+                broker.post(UIConstants.Event.File.SAVED, file.getAbsolutePath());
+
+                // keep the part dirty if the client changed after saving
+                if (client.getRevision() == revision)
+                    dirty.setDirty(false);
+
+                storePreferences();
+            });
+        }
+
+        @Override
+        public void failed(File file, IOException exception)
+        {
+            Display.getDefault().asyncExec(() -> ErrorDialog.openError(Display.getDefault().getActiveShell(),
+                            Messages.LabelError, exception.getMessage(), new Status(Status.ERROR,
+                                            PortfolioPlugin.PLUGIN_ID, exception.getMessage(), exception)));
+        }
+    }
+
     private void createBackup(Shell shell, File file)
     {
         try
         {
-            // keep original extension in order to be able to open the backup
-            // file directly from within PP
-            String filename = file.getName();
-            int l = filename.lastIndexOf('.');
-            String suffix = ".backup"; //$NON-NLS-1$
-            String backupName = l > 0 ? filename.substring(0, l) + suffix + filename.substring(l) : filename + suffix;
-
-            Path sourceFile = file.toPath();
-            Path backupFile = sourceFile.resolveSibling(backupName);
-            Files.copy(sourceFile, backupFile, StandardCopyOption.REPLACE_EXISTING);
+            copyToBackup(file);
         }
         catch (IOException e)
         {
@@ -381,6 +483,20 @@ public class PortfolioPart implements LoadClientThread.Callback
         }
     }
 
+    private void copyToBackup(File file) throws IOException
+    {
+        // keep original extension in order to be able to open the backup
+        // file directly from within PP
+        String filename = file.getName();
+        int l = filename.lastIndexOf('.');
+        String suffix = ".backup"; //$NON-NLS-1$
+        String backupName = l > 0 ? filename.substring(0, l) + suffix + filename.substring(l) : filename + suffix;
+
+        Path sourceFile = file.toPath();
+        Path backupFile = sourceFile.resolveSibling(backupName);
+        Files.copy(sourceFile, backupFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
     public void doSaveAs(MPart part, Shell shell, String extension, String encryptionMethod) // NOSONAR
     {
         FileDialog dialog = new FileDialog(shell, SWT.SAVE);
@@ -0,0 +1,151 @@
+package name.abuchen.portfolio.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.swt.widgets.Display;
+
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.ClientFactory;
+
+/**
+ * Saves the client in the background. The model has no locks, therefore the
+ * client is written optimistically: if the revision of the client changes
+ * while writing, the file is not replaced and the job is rescheduled. The
+ * revision is compared on the UI thread because views modify the model and
+ * then mark it dirty within one runnable. Quotes
+ * are updated without changing the revision every time, therefore the job
+ * does not run while an {@link UpdateQuotesJob} of the client runs.
+ * <p/>
+ * Scheduling the job while it is waiting has no effect, scheduling it while
+ * it is running saves the client once more afterwards. Hence saves in quick
+ * succession are coalesced.
+ */
+public class SaveClientJob extends AbstractClientJob
+{
+    public interface Callback
+    {
+        /**
+         * Called (outside the UI thread) before the file is written anew.
+         */
+        void beforeSave(File file);
+
+        /**
+         * Called (outside the UI thread) after the file has been replaced.
+         *
+         * @param revision
+         *            revision of the client that has been saved
+         */
+        void saved(File file, long revision);
+
+        void failed(File file, IOException exception);
+    }
+
+    private static final int RETRY_DELAY = 500;
+    private static final int CANCEL_POLL_INTERVAL = 100;
+
+    private final File file;
+    private final Callback callback;
+
+    public SaveClientJob(Client client, File file, Callback callback)
+    {
+        super(client, MessageFormat.format(Messages.JobMsgSavingFile, file.getName()));
+        this.file = file;
+        this.callback = callback;
+
+        setRule(new UpdateQuotesJob.ClientSchedulingRule(client));
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor)
+    {
+        monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+
+        Client client = getClient();
+        long revision = client.getRevision();
+
+        try
+        {
+            callback.beforeSave(file);
+
+            if (ClientFactory.save(client, file, null, null, () -> isUnchanged(monitor, revision)))
+                callback.saved(file, revision);
+            else if (!monitor.isCanceled())
+                schedule(RETRY_DELAY);
+        }
+        catch (IOException e)
+        {
+            callback.failed(file, e);
+        }
+        catch (RuntimeException e)
+        {
+            // the client has been modified while being serialized
+            if (revision != client.getRevision())
+            {
+                if (!monitor.isCanceled())
+                    schedule(RETRY_DELAY);
+            }
+            else
+                throw e;
+        }
+        finally
+        {
+            monitor.done();
+        }
+
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Compares the revision on the UI thread, i.e. no modification is half
+     * applied. Does not block the UI thread waiting for the job to finish
+     * (e.g. when closing the part) as the job gives up once canceled.
+     */
+    private boolean isUnchanged(IProgressMonitor monitor, long revision)
+    {
+        Display display = Display.getDefault();
+        if (display.isDisposed())
+            return false;
+
+        CompletableFuture<Boolean> isUnchanged = new CompletableFuture<>();
+        display.asyncExec(() -> isUnchanged.complete(revision == getClient().getRevision()));
+
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return isUnchanged.get(CANCEL_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException e)
+                {
+                    if (monitor.isCanceled() || display.isDisposed())
+                        return false;
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (ExecutionException e)
+        {
+            return false;
+        }
+    }
+}
@@ -80,5 +80,11 @@ public interface UIConstants
          * Preference key to store a comma-separated list of recent files
          */
         String RECENT_FILES = "RECENT_FILES"; //$NON-NLS-1$
+
+        /**
+         * Preference key for the maximum number of segments of a performance
+         * index which are calculated in parallel. Zero uses all processors.
+         */
+        String CALCULATION_PARALLELISM = "CALCULATION_PARALLELISM"; //$NON-NLS-1$
     }
 }
@@ -107,6 +107,33 @@ public final class UpdateQuotesJob extends AbstractClientJob
 
     }
 
+    /**
+     * Quotes are updated without changing the revision of the client every
+     * time (see {@link Dirtyable}). Hence jobs writing the client must not run
+     * while the quotes of the client are updated.
+     */
+    /* package */static final class ClientSchedulingRule implements ISchedulingRule
+    {
+        private final Client client;
+
+        /* package */ClientSchedulingRule(Client client)
+        {
+            this.client = client;
+        }
+
+        @Override
+        public boolean contains(ISchedulingRule rule)
+        {
+            return isConflicting(rule);
+        }
+
+        @Override
+        public boolean isConflicting(ISchedulingRule rule)
+        {
+            return rule instanceof ClientSchedulingRule && ((ClientSchedulingRule) rule).client.equals(this.client);
+        }
+    }
+
     private final Set<Target> target;
     private final List<Security> securities;
     private long repeatPeriod;
@@ -127,6 +154,8 @@ public final class UpdateQuotesJob extends AbstractClientJob
 
         this.target = target;
         this.securities = new ArrayList<Security>(securities);
+
+        setRule(new ClientSchedulingRule(client));
     }
 
     public UpdateQuotesJob repeatEvery(long milliseconds)
@@ -29,6 +29,7 @@ import org.osgi.service.event.Event;
 
 import name.abuchen.portfolio.money.ExchangeRateProvider;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
+import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPlugin;
@@ -130,6 +131,13 @@ public class StartupAddon
         }
     }
 
+    @Inject
+    public void setupCalculationParallelism(
+                    @Preference(value = UIConstants.Preferences.CALCULATION_PARALLELISM) int parallelism)
+    {
+        PerformanceIndex.setParallelism(parallelism);
+    }
+
     @PostConstruct
     public void updateExchangeRates(ExchangeRateProviderFactory factory)
     {
@@ -28,6 +28,6 @@ public class SaveFileHandler
             return;
 
         // trigger part to save file
-        ((PortfolioPart) part.getObject()).save(part, shell);
+        ((PortfolioPart) part.getObject()).saveInBackground(part, shell);
     }
 }
@@ -2,6 +2,7 @@ package name.abuchen.portfolio.ui.preferences;
 
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.UIConstants;
@@ -19,5 +20,10 @@ public class GeneralPreferencePage extends FieldEditorPreferencePage
     {
         addField(new BooleanFieldEditor(UIConstants.Preferences.CREATE_BACKUP_BEFORE_SAVING, //
                         Messages.PrefCreateBackupBeforeSaving, getFieldEditorParent()));
+
+        IntegerFieldEditor parallelism = new IntegerFieldEditor(UIConstants.Preferences.CALCULATION_PARALLELISM, //
+                        Messages.PrefLabelCalculationParallelism, getFieldEditorParent());
+        parallelism.setValidRange(0, 256);
+        addField(parallelism);
     }
 }
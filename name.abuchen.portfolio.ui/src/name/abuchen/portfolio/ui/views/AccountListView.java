@@ -48,6 +48,7 @@ import name.abuchen.portfolio.money.Money;
 import name.abuchen.portfolio.money.MutableMoney;
 import name.abuchen.portfolio.money.Quote;
 import name.abuchen.portfolio.money.Values;
+import name.abuchen.portfolio.snapshot.AccountBalances;
 import name.abuchen.portfolio.snapshot.AccountSnapshot;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
@@ -768,9 +769,11 @@ public class AccountListView extends AbstractListView implements ModificationLis
             dates[0] = start.minusDays(1);
             values[0] = 0d;
 
+            AccountBalances balances = AccountBalances.of(Collections.singletonList(account));
+
             for (int ii = 1; ii < dates.length; ii++)
             {
-                values[ii] = AccountSnapshot.create(account, converter, start) //
+                values[ii] = AccountSnapshot.create(account, converter, start, balances) //
                                 .getFunds().getAmount() / Values.Amount.divider();
                 dates[ii] = start;
                 start = start.plusDays(1);
@@ -10,6 +10,7 @@ import name.abuchen.portfolio.money.CurrencyConverterImpl;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
 import name.abuchen.portfolio.money.Values;
 import name.abuchen.portfolio.snapshot.ClientSnapshot;
+import name.abuchen.portfolio.snapshot.SnapshotCache;
 import name.abuchen.portfolio.ui.AbstractFinanceView;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPlugin;
@@ -27,6 +28,9 @@ public class HoldingsPieChartView extends AbstractFinanceView
     @Inject
     private ExchangeRateProviderFactory factory;
 
+    @Inject
+    private SnapshotCache snapshotCache;
+
     @Override
     protected String getTitle()
     {
@@ -77,7 +81,7 @@ public class HoldingsPieChartView extends AbstractFinanceView
             try
             {
                 CurrencyConverter converter = new CurrencyConverterImpl(factory, getClient().getBaseCurrency());
-                ClientSnapshot snapshot = ClientSnapshot.create(getClient(), converter, LocalDate.now());
+                ClientSnapshot snapshot = snapshotCache.getClientSnapshot(getClient(), converter, LocalDate.now());
 
                 StringJoiner joiner = new StringJoiner(",", "[", "]"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
                 JSColors colors = new JSColors();
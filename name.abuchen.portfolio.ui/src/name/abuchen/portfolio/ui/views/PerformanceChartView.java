@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.PostConstruct;
+import javax.inject.Inject;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.ActionContributionItem;
@@ -42,6 +43,7 @@ import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
 import name.abuchen.portfolio.snapshot.Aggregation;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
+import name.abuchen.portfolio.snapshot.SnapshotCache;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPart;
@@ -57,6 +59,9 @@ public class PerformanceChartView extends AbstractHistoricView
 {
     private static final String KEY_AGGREGATION_PERIOD = "performance-chart-aggregation-period"; //$NON-NLS-1$
 
+    @Inject
+    private SnapshotCache snapshotCache;
+
     private CurrencyConverter converter;
 
     private TimelineChart chart;
@@ -230,7 +235,7 @@ public class PerformanceChartView extends AbstractHistoricView
         if (index == null)
         {
             ReportingPeriod interval = getReportingPeriod();
-            index = PerformanceIndex.forClient(getClient(), converter, interval, warnings);
+            index = snapshotCache.getClientIndex(getClient(), converter, interval, warnings);
             dataCache.put(Client.class, index);
         }
         return index;
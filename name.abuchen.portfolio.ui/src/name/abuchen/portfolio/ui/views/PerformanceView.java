@@ -61,6 +61,7 @@ import name.abuchen.portfolio.snapshot.ClientPerformanceSnapshot;
 import name.abuchen.portfolio.snapshot.GroupEarningsByAccount;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
+import name.abuchen.portfolio.snapshot.SnapshotCache;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.util.AbstractCSVExporter;
@@ -345,6 +346,9 @@ public class PerformanceView extends AbstractHistoricView
     @Inject
     private ExchangeRateProviderFactory factory;
 
+    @Inject
+    private SnapshotCache snapshotCache;
+
     private OverviewTab overview;
     private TreeViewer calculation;
     private StatementOfAssetsViewer snapshotStart;
@@ -370,7 +374,7 @@ public class PerformanceView extends AbstractHistoricView
     {
         ReportingPeriod period = getReportingPeriod();
         CurrencyConverter converter = new CurrencyConverterImpl(factory, getClient().getBaseCurrency());
-        ClientPerformanceSnapshot snapshot = new ClientPerformanceSnapshot(getClient(), converter, period);
+        ClientPerformanceSnapshot snapshot = snapshotCache.getClientPerformanceSnapshot(getClient(), converter, period);
 
         overview.setInput(snapshot);
 
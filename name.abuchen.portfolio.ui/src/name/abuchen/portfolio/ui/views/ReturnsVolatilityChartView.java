@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.PostConstruct;
+import javax.inject.Inject;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.ActionContributionItem;
@@ -43,6 +44,7 @@ import name.abuchen.portfolio.money.CurrencyConverterImpl;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
+import name.abuchen.portfolio.snapshot.SnapshotCache;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPlugin;
@@ -55,6 +57,9 @@ import name.abuchen.portfolio.ui.views.ChartConfigurator.DataSeries;
 
 public class ReturnsVolatilityChartView extends AbstractHistoricView
 {
+    @Inject
+    private SnapshotCache snapshotCache;
+
     private CurrencyConverter converter;
 
     private ScatterChart chart;
@@ -237,7 +242,7 @@ public class ReturnsVolatilityChartView extends AbstractHistoricView
         if (index == null)
         {
             ReportingPeriod interval = getReportingPeriod();
-            index = PerformanceIndex.forClient(getClient(), converter, interval, warnings);
+            index = snapshotCache.getClientIndex(getClient(), converter, interval, warnings);
             dataCache.put(Client.class, index);
         }
         return index;
@@ -193,13 +193,12 @@ public class SecurityListView extends AbstractListView implements ModificationLi
         // called from prices table
         Security security = (Security) prices.getData(Security.class.toString());
 
-        // if the date changed, the prices must be reordered --> binary search
+        // the edited price is a copy -> write the change back into the
+        // historical quotes of the security
+        SecurityPrice price = (SecurityPrice) element;
         if (newValue instanceof LocalDate)
-        {
-            SecurityPrice price = (SecurityPrice) element;
-            security.removePrice(price);
-            security.addPrice(price);
-        }
+            security.removePrice(new SecurityPrice((LocalDate) oldValue, price.getValue()));
+        security.addPrice(price);
 
         securities.refresh(security);
         prices.refresh(element);
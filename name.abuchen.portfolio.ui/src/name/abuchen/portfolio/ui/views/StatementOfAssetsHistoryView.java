@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
+import javax.inject.Inject;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.ActionContributionItem;
@@ -33,6 +34,7 @@ import name.abuchen.portfolio.money.CurrencyConverterImpl;
 import name.abuchen.portfolio.money.ExchangeRateProviderFactory;
 import name.abuchen.portfolio.money.Values;
 import name.abuchen.portfolio.snapshot.PerformanceIndex;
+import name.abuchen.portfolio.snapshot.SnapshotCache;
 import name.abuchen.portfolio.ui.Images;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPlugin;
@@ -43,6 +45,9 @@ import name.abuchen.portfolio.ui.views.ChartConfigurator.DataSeries;
 
 public class StatementOfAssetsHistoryView extends AbstractHistoricView
 {
+    @Inject
+    private SnapshotCache snapshotCache;
+
     private CurrencyConverter converter;
 
     private TimelineChart chart;
@@ -244,7 +249,7 @@ public class StatementOfAssetsHistoryView extends AbstractHistoricView
         PerformanceIndex clientIndex = (PerformanceIndex) dataCache.get(Client.class);
         if (clientIndex == null)
         {
-            clientIndex = PerformanceIndex.forClient(getClient(), converter, getReportingPeriod(), warnings);
+            clientIndex = snapshotCache.getClientIndex(getClient(), converter, getReportingPeriod(), warnings);
             dataCache.put(Client.class, clientIndex);
         }
 
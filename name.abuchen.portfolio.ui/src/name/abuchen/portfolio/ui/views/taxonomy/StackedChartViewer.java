@@ -31,8 +31,7 @@ import name.abuchen.portfolio.model.Classification;
 import name.abuchen.portfolio.model.InvestmentVehicle;
 import name.abuchen.portfolio.snapshot.Aggregation;
 import name.abuchen.portfolio.snapshot.Aggregation.Period;
-import name.abuchen.portfolio.snapshot.AssetPosition;
-import name.abuchen.portfolio.snapshot.ClientSnapshot;
+import name.abuchen.portfolio.snapshot.VehicleValuationStream;
 import name.abuchen.portfolio.ui.Messages;
 import name.abuchen.portfolio.ui.PortfolioPart;
 import name.abuchen.portfolio.ui.util.chart.StackedTimelineChart;
@@ -52,10 +51,8 @@ public class StackedChartViewer extends AbstractChartPage
             this.series.add(series);
         }
 
-        public void book(int index, AssetPosition pos)
+        public void book(int index, long value)
         {
-            long value = pos.getValuation().getAmount();
-
             for (int ii = 0; ii < weights.size(); ii++)
                 series.get(ii).book(index, value * weights.get(ii) / Classification.ONE_HUNDRED_PERCENT);
         }
@@ -119,6 +116,8 @@ public class StackedChartViewer extends AbstractChartPage
 
     private List<LocalDate> dates;
 
+    private Job updateJob;
+
     @Inject
     public StackedChartViewer(PortfolioPart part, TaxonomyModel model, TaxonomyNodeRenderer renderer)
     {
@@ -205,22 +204,34 @@ public class StackedChartViewer extends AbstractChartPage
         isVisible = false;
     }
 
+    @Override
+    public void dispose()
+    {
+        if (updateJob != null)
+            updateJob.cancel();
+
+        super.dispose();
+    }
+
     private void asyncUpdateChart()
     {
-        new Job(Messages.JobLabelUpdateStackedLineChart)
+        // a running calculation is outdated if the configuration changed
+        if (updateJob != null)
+            updateJob.cancel();
+
+        updateJob = new Job(Messages.JobLabelUpdateStackedLineChart)
         {
             @Override
             protected IStatus run(IProgressMonitor monitor)
             {
-                updateChart();
-
-                return Status.OK_STATUS;
+                return updateChart(monitor);
             }
 
-        }.schedule();
+        };
+        updateJob.schedule();
     }
 
-    private void updateChart()
+    private IStatus updateChart(IProgressMonitor monitor)
     {
         final Map<InvestmentVehicle, VehicleBuilder> vehicle2builder = new HashMap<InvestmentVehicle, VehicleBuilder>();
         final Map<TaxonomyNode, SeriesBuilder> node2series = new LinkedHashMap<>();
@@ -252,23 +263,20 @@ public class StackedChartViewer extends AbstractChartPage
 
         final long[] totals = new long[dates.size()];
 
-        int index = 0;
-        for (LocalDate current : dates)
-        {
-            ClientSnapshot snapshot = ClientSnapshot.create(getModel().getClient(), getModel().getCurrencyConverter(),
-                            current);
-            totals[index] = snapshot.getMonetaryAssets().getAmount();
-
-            Map<InvestmentVehicle, AssetPosition> p = snapshot.getPositionsByVehicle();
+        VehicleValuationStream stream = new VehicleValuationStream(getModel().getClient(),
+                        getModel().getCurrencyConverter());
 
-            for (Map.Entry<InvestmentVehicle, VehicleBuilder> entry : vehicle2builder.entrySet())
-            {
-                AssetPosition pos = p.get(entry.getKey());
-                if (pos != null)
-                    entry.getValue().book(index, pos);
-            }
-
-            index++;
+        for (int index = 0; index < totals.length; index++)
+        {
+            if (monitor.isCanceled())
+                return Status.CANCEL_STATUS;
+
+            final int day = index;
+            totals[index] = stream.advanceTo(dates.get(index), (vehicle, value) -> {
+                VehicleBuilder builder = vehicle2builder.get(vehicle);
+                if (builder != null)
+                    builder.book(day, value);
+            });
         }
 
         // if the unassigned category is excluded, reduce the total values
@@ -295,7 +303,12 @@ public class StackedChartViewer extends AbstractChartPage
             Collections.sort(series);
         }
 
+        if (monitor.isCanceled())
+            return Status.CANCEL_STATUS;
+
         Display.getDefault().asyncExec(() -> rebuildChartSeries(totals, series));
+
+        return Status.OK_STATUS;
     }
 
     private void rebuildChartSeries(long[] totals, List<SeriesBuilder> series)
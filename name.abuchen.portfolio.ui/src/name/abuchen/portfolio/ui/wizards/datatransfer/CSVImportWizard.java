@@ -132,13 +132,7 @@ public class CSVImportWizard extends Wizard
 
         List<SecurityPrice> prices = importer.createItems(new ArrayList<>()).get(0).getSecurity().getPrices();
 
-        boolean isDirty = false;
-        for (SecurityPrice p : prices)
-        {
-            if (security.addPrice(p))
-                isDirty = true;
-        }
-        return isDirty;
+        return security.mergePrices(prices) > 0;
     }
 
     private boolean importItems()
@@ -1,5 +1,6 @@
 package name.abuchen.portfolio.ui.wizards.datatransfer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jface.wizard.Wizard;
@@ -45,11 +46,10 @@ public class ImportQuotesWizard extends Wizard
     {
         List<LatestSecurityPrice> quotes = reviewPage.getQuotes();
 
+        List<SecurityPrice> prices = new ArrayList<>(quotes.size());
         for (LatestSecurityPrice p : quotes)
-        {
-            SecurityPrice quote = new SecurityPrice(p.getTime(), p.getValue());
-            security.addPrice(quote);
-        }
+            prices.add(new SecurityPrice(p.getTime(), p.getValue()));
+        security.mergePrices(prices);
 
         return true;
     }
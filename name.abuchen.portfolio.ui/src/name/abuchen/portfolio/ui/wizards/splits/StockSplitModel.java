@@ -113,7 +113,7 @@ public class StockSplitModel extends BindingHelper.Model
             for (SecurityPrice p : quotes)
             {
                 if (p.getTime().isBefore(exDate))
-                    p.setValue(p.getValue() * oldShares / newShares);
+                    security.addPrice(new SecurityPrice(p.getTime(), p.getValue() * oldShares / newShares));
             }
         }
 
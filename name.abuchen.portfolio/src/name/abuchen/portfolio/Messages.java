@@ -139,6 +139,7 @@ public class Messages extends NLS
     public static String MsgErrorsConvertingValue;
     public static String MsgErrorUnitCurrencyMismatch;
     public static String MsgFileNotFound;
+    public static String MsgJournalCorrupted;
     public static String MsgKeyLengthNotSupported;
     public static String MsgLoadingExchangeRates;
     public static String MsgMissingFeedURL;
@@ -43,7 +43,7 @@ import name.abuchen.portfolio.model.SecurityPrice;
     public List<Item> extract(int skipLines, List<String[]> rawValues, Map<String, Column> field2column,
                     List<Exception> errors)
     {
-        Security dummy = new Security();
+        List<SecurityPrice> prices = new ArrayList<>();
 
         for (String[] line : rawValues)
         {
@@ -51,7 +51,7 @@ import name.abuchen.portfolio.model.SecurityPrice;
             {
                 SecurityPrice p = extract(line, field2column);
                 if (p != null)
-                    dummy.addPrice(p);
+                    prices.add(p);
             }
             catch (ParseException e)
             {
@@ -59,6 +59,9 @@ import name.abuchen.portfolio.model.SecurityPrice;
             }
         }
 
+        Security dummy = new Security();
+        dummy.mergePrices(prices);
+
         List<Item> result = new ArrayList<>();
         if (!dummy.getPrices().isEmpty())
             result.add(new SecurityItem(dummy));
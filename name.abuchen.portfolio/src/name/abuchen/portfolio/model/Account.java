@@ -39,6 +39,11 @@ public class Account implements TransactionOwner<AccountTransaction>, Investment
         uuid = UUID.randomUUID().toString();
     }
 
+    /* package */void setUUID(String uuid)
+    {
+        this.uuid = uuid;
+    }
+
     @Override
     public String getName()
     {
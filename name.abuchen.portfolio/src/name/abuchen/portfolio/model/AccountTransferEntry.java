@@ -37,6 +37,16 @@ public class AccountTransferEntry implements CrossEntry, Annotated
         return this.transactionTo;
     }
 
+    /* package */void setSourceTransaction(AccountTransaction transaction)
+    {
+        this.transactionFrom = transaction;
+    }
+
+    /* package */void setTargetTransaction(AccountTransaction transaction)
+    {
+        this.transactionTo = transaction;
+    }
+
     public void setSourceAccount(Account account)
     {
         this.accountFrom = account;
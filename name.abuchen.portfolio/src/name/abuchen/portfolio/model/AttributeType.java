@@ -290,6 +290,11 @@ public class AttributeType
         this.converter = null; // in case it was used before
     }
 
+    /* package */String getConverterClass()
+    {
+        return converterClass;
+    }
+
     public Converter getConverter()
     {
         try
@@ -178,4 +178,14 @@ public class BuySellEntry implements CrossEntry, Annotated
     {
         return accountTransaction;
     }
+
+    /* package */void setPortfolioTransaction(PortfolioTransaction portfolioTransaction)
+    {
+        this.portfolioTransaction = portfolioTransaction;
+    }
+
+    /* package */void setAccountTransaction(AccountTransaction accountTransaction)
+    {
+        this.accountTransaction = accountTransaction;
+    }
 }
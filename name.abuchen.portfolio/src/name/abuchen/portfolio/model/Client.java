@@ -62,6 +62,15 @@ public class Client
 
     private transient SecretKey secret;
 
+    private transient ClientJournal journal;
+
+    /**
+     * Incremented whenever the client is marked dirty or a property of the
+     * client changes. Used by calculations to detect whether cached data
+     * structures are still valid.
+     */
+    private transient volatile long revision;
+
     public Client()
     {
         doPostLoadInitialization();
@@ -123,6 +132,7 @@ public class Client
 
     public void setBaseCurrency(String baseCurrency)
     {
+        revision++;
         propertyChangeSupport.firePropertyChange("baseCurrency", this.baseCurrency, this.baseCurrency = baseCurrency); //$NON-NLS-1$
     }
 
@@ -339,15 +349,22 @@ public class Client
         return settings;
     }
 
+    /* package */void setSettings(ClientSettings settings)
+    {
+        this.settings = settings;
+    }
+
     public void setProperty(String key, String value)
     {
         String oldValue = properties.put(key, value);
+        revision++;
         propertyChangeSupport.firePropertyChange("properties", oldValue, value); //$NON-NLS-1$
     }
 
     public String removeProperty(String key)
     {
         String oldValue = properties.remove(key);
+        revision++;
         propertyChangeSupport.firePropertyChange("properties", oldValue, null); //$NON-NLS-1$
         return oldValue;
     }
@@ -357,6 +374,11 @@ public class Client
         return properties.get(key);
     }
 
+    /* package */Map<String, String> getProperties()
+    {
+        return properties;
+    }
+
     /* package */SecretKey getSecret()
     {
         return secret;
@@ -367,6 +389,16 @@ public class Client
         this.secret = secret;
     }
 
+    /* package */ClientJournal getJournal()
+    {
+        return journal;
+    }
+
+    /* package */void setJournal(ClientJournal journal)
+    {
+        this.journal = journal;
+    }
+
     /**
      * Removes the given account as reference account from any portfolios. As
      * the model expects that there is always a reference account, an arbitrary
@@ -480,8 +512,18 @@ public class Client
         }
     }
 
+    /**
+     * Returns the revision of the client which changes whenever the client is
+     * {@link #markDirty() marked dirty} or one of its properties changes.
+     */
+    public long getRevision()
+    {
+        return revision;
+    }
+
     public void markDirty()
     {
+        revision++;
         propertyChangeSupport.firePropertyChange("dirty", false, true); //$NON-NLS-1$
     }
 
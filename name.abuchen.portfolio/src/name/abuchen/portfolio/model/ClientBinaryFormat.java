@@ -0,0 +1,1690 @@
+package name.abuchen.portfolio.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import name.abuchen.portfolio.Messages;
+import name.abuchen.portfolio.model.Classification.Assignment;
+import name.abuchen.portfolio.money.Money;
+
+/**
+ * Reads and writes a client in a compact binary format.
+ * <p/>
+ * The file starts with a signature, the version of the binary format, and the
+ * version of the client. It is followed by sections, each consisting of a tag
+ * and the length of its payload, and ends with the {@link #END} tag:
+ * <ul>
+ * <li>{@link #STRINGS}: all strings of the file (names, currency codes, notes,
+ * enum constants). Strings are written as index into this table, 0 being
+ * <code>null</code>.</li>
+ * <li>{@link #MASTER_DATA}: securities (without quotes), accounts, portfolios,
+ * watchlists, consumer price indices, properties, settings, and
+ * taxonomies.</li>
+ * <li>{@link #TRANSACTIONS}: the transactions grouped by account and
+ * portfolio, the cross entries, and the investment plans.</li>
+ * <li>{@link #PRICES}: per security the latest quote and one block with the
+ * epoch days and values of the historical quotes, both delta-encoded. The
+ * blocks are decoded only when the quotes of a security are accessed
+ * first.</li>
+ * <li>{@link #GENERATION}: optional, the generation of the
+ * {@link ClientJournal journal} which belongs to the file.</li>
+ * </ul>
+ * Numbers are written as variable-length integers, signed numbers zigzag
+ * encoded. Securities, accounts, portfolios, transactions, and cross entries
+ * are numbered in the order they are written and referred to by number + 1,
+ * 0 again being <code>null</code>.
+ */
+/* package */class ClientBinaryFormat
+{
+    private static final byte[] SIGNATURE = new byte[] { 'P', 'P', 'B', 'I', 'N', 'A', 'R', 'Y' };
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int END = 0;
+    private static final int STRINGS = 1;
+    private static final int MASTER_DATA = 2;
+    private static final int TRANSACTIONS = 3;
+    private static final int PRICES = 4;
+    private static final int GENERATION = 5;
+
+    private static final int BUY_SELL_ENTRY = 1;
+    private static final int ACCOUNT_TRANSFER_ENTRY = 2;
+    private static final int PORTFOLIO_TRANSFER_ENTRY = 3;
+
+    private static final int NULL = 0;
+    private static final int ARRAY_LIST = 1;
+    private static final int FIXED_SIZE_LIST = 2;
+
+    private static final int STRING_VALUE = 1;
+    private static final int LONG_VALUE = 2;
+    private static final int DOUBLE_VALUE = 3;
+    private static final int DATE_VALUE = 4;
+
+    private static final int SECURITY = 1;
+    private static final int ACCOUNT = 2;
+
+    private ClientBinaryFormat()
+    {}
+
+    /**
+     * Returns true if the stream starts with the signature of the binary
+     * format. The stream must support {@link InputStream#mark(int)} and is
+     * reset to its current position.
+     */
+    public static boolean hasSignature(InputStream input) throws IOException
+    {
+        byte[] header = new byte[SIGNATURE.length];
+        int length = 0;
+
+        input.mark(SIGNATURE.length);
+        while (length < header.length)
+        {
+            int read = input.read(header, length, header.length - length);
+            if (read < 0)
+                break;
+            length += read;
+        }
+        input.reset();
+
+        return length == header.length && Arrays.equals(header, SIGNATURE);
+    }
+
+    public static void write(Client client, OutputStream output) throws IOException
+    {
+        write(client, output, true);
+    }
+
+    /**
+     * Writes the client. If withQuotes is false, the historical and latest
+     * quotes of the securities are omitted, for example to record the other
+     * changes in the journal.
+     *
+     * @return SHA-256 digest of the written sections except quotes, hence
+     *         identical whether or not the quotes are written
+     */
+    /* package */static byte[] write(Client client, OutputStream output, boolean withQuotes) throws IOException
+    {
+        return new Writer(client, withQuotes).write(output);
+    }
+
+    public static Client read(InputStream input) throws IOException
+    {
+        DataInputStream in = new DataInputStream(input);
+
+        byte[] signature = new byte[SIGNATURE.length];
+        in.readFully(signature);
+        if (!Arrays.equals(signature, SIGNATURE))
+            throw new IOException(Messages.MsgNotAPortflioFile);
+
+        int formatVersion = in.readInt();
+        if (formatVersion > FORMAT_VERSION)
+            throw new IOException(MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled, formatVersion));
+        else if (formatVersion < FORMAT_VERSION)
+            throw new IOException(Messages.MsgNotAPortflioFile);
+
+        try
+        {
+            return new Reader().read(in);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            throw new IOException(Messages.MsgNotAPortflioFile, e);
+        }
+    }
+
+    /**
+     * Numbers objects by the order in which they are added.
+     */
+    private static final class Table<T>
+    {
+        private final List<T> items = new ArrayList<>();
+        private final Map<T, Integer> ids = new IdentityHashMap<>();
+
+        private boolean add(T item)
+        {
+            if (item == null || ids.containsKey(item))
+                return false;
+
+            ids.put(item, items.size());
+            items.add(item);
+            return true;
+        }
+
+        private boolean contains(T item)
+        {
+            return ids.containsKey(item);
+        }
+
+        private int reference(T item) throws IOException
+        {
+            if (item == null)
+                return 0;
+
+            Integer id = ids.get(item);
+            if (id == null)
+                throw new IOException(item.toString());
+            return id + 1;
+        }
+
+        private int size()
+        {
+            return items.size();
+        }
+    }
+
+    /**
+     * Payload of a section.
+     */
+    private static final class Output extends ByteArrayOutputStream
+    {
+        private void writeVarInt(int value)
+        {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        private void writeVarLong(long value)
+        {
+            long v = value;
+            while ((v & ~0x7FL) != 0)
+            {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        private void writeSigned(long value)
+        {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeBoolean(boolean value)
+        {
+            write(value ? 1 : 0);
+        }
+
+        private void writeDate(LocalDate date)
+        {
+            if (date == null)
+                writeVarLong(0);
+            else
+                writeVarLong(((date.toEpochDay() << 1) ^ (date.toEpochDay() >> 63)) + 1);
+        }
+
+        private void update(MessageDigest digest)
+        {
+            digest.update(buf, 0, count);
+        }
+    }
+
+    /**
+     * Reads the payload of a section.
+     */
+    private static final class Input
+    {
+        private final byte[] buffer;
+        private int position;
+
+        private Input(byte[] buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        private int read() throws IOException
+        {
+            if (position >= buffer.length)
+                throw new EOFException();
+            return buffer[position++] & 0xFF;
+        }
+
+        private int readVarInt() throws IOException
+        {
+            long value = readVarLong();
+            if (value > Integer.MAX_VALUE)
+                throw new IOException(String.valueOf(value));
+            return (int) value;
+        }
+
+        private long readVarLong() throws IOException
+        {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do
+            {
+                if (shift > 63)
+                    throw new IOException();
+                b = read();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            }
+            while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private long readSigned() throws IOException
+        {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private void skipVarInts(int count) throws IOException
+        {
+            for (int ii = 0; ii < count; ii++)
+            {
+                while ((read() & 0x80) != 0)
+                {
+                    // skip continuation bytes
+                }
+            }
+        }
+
+        private boolean readBoolean() throws IOException
+        {
+            return read() != 0;
+        }
+
+        private LocalDate readDate() throws IOException
+        {
+            long value = readVarLong();
+            if (value == 0)
+                return null;
+            value--;
+            return LocalDate.ofEpochDay((value >>> 1) ^ -(value & 1));
+        }
+    }
+
+    private static final class Writer
+    {
+        private final Client client;
+        private final boolean withQuotes;
+
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Output stringTable = new Output();
+
+        private final Table<Security> securities = new Table<>();
+        private final Table<Account> accounts = new Table<>();
+        private final Table<Portfolio> portfolios = new Table<>();
+        private final Table<Transaction> transactions = new Table<>();
+        private final Table<CrossEntry> entries = new Table<>();
+
+        private final Table<Transaction> visited = new Table<>();
+        private final List<AccountTransaction> orphanAccountTransactions = new ArrayList<>();
+        private final List<PortfolioTransaction> orphanPortfolioTransactions = new ArrayList<>();
+
+        private Writer(Client client, boolean withQuotes)
+        {
+            this.client = client;
+            this.withQuotes = withQuotes;
+        }
+
+        private byte[] write(OutputStream output) throws IOException
+        {
+            collect();
+
+            Output masterData = new Output();
+            writeMasterData(masterData);
+
+            Output transactionData = new Output();
+            writeTransactions(transactionData);
+
+            Output prices = new Output();
+            writePrices(prices);
+
+            DataOutputStream out = new DataOutputStream(output);
+            out.write(SIGNATURE);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(client.getVersion());
+
+            // the string table is complete only after all other sections
+            // are written, but the reader needs it first
+            Output table = new Output();
+            table.writeVarInt(strings.size());
+            stringTable.writeTo(table);
+
+            writeSection(out, STRINGS, table);
+            writeSection(out, MASTER_DATA, masterData);
+            writeSection(out, TRANSACTIONS, transactionData);
+            writeSection(out, PRICES, prices);
+
+            byte[] digest = digest(table, masterData, transactionData);
+
+            ClientJournal journal = client.getJournal();
+            if (withQuotes && journal != null)
+            {
+                Output generation = new Output();
+                generation.writeVarLong(journal.getGeneration());
+                writeSection(out, GENERATION, generation);
+            }
+
+            out.writeByte(END);
+            out.flush();
+
+            return digest;
+        }
+
+        private byte[] digest(Output... sections) throws IOException
+        {
+            try
+            {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(client.getVersion()).array());
+                for (Output section : sections)
+                    section.update(digest);
+                return digest.digest();
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        private void writeSection(DataOutputStream out, int tag, Output payload) throws IOException
+        {
+            out.writeByte(tag);
+            out.writeInt(payload.size());
+            payload.writeTo(out);
+        }
+
+        /**
+         * Numbers all objects reachable from the client. Usually all of them
+         * are part of the lists of the client, but cross entries and
+         * investment plans can refer to objects which are not.
+         */
+        private void collect() throws IOException
+        {
+            client.getSecurities().forEach(securities::add);
+            client.getAccounts().forEach(accounts::add);
+            client.getPortfolios().forEach(portfolios::add);
+
+            for (Watchlist watchlist : client.getWatchlists())
+                watchlist.getSecurities().forEach(securities::add);
+
+            for (Taxonomy taxonomy : client.getTaxonomies())
+                collect(taxonomy.getRoot());
+
+            for (InvestmentPlan plan : client.getPlans())
+            {
+                securities.add(plan.getSecurity());
+                portfolios.add(plan.getPortfolio());
+                accounts.add(plan.getAccount());
+                for (PortfolioTransaction t : plan.getTransactions())
+                    visit(t);
+            }
+
+            int nextAccount = 0;
+            int nextPortfolio = 0;
+            while (nextAccount < accounts.size() || nextPortfolio < portfolios.size())
+            {
+                while (nextAccount < accounts.size())
+                {
+                    for (AccountTransaction t : accounts.items.get(nextAccount++).getTransactions())
+                        visit(t);
+                }
+
+                while (nextPortfolio < portfolios.size())
+                {
+                    Portfolio portfolio = portfolios.items.get(nextPortfolio++);
+                    accounts.add(portfolio.getReferenceAccount());
+                    for (PortfolioTransaction t : portfolio.getTransactions())
+                        visit(t);
+                }
+            }
+
+            // transactions are numbered in the order the reader creates them
+            for (Account account : accounts.items)
+                for (AccountTransaction t : account.getTransactions())
+                    if (!transactions.add(t))
+                        throw new IOException(t.toString());
+
+            for (Portfolio portfolio : portfolios.items)
+                for (PortfolioTransaction t : portfolio.getTransactions())
+                    if (!transactions.add(t))
+                        throw new IOException(t.toString());
+
+            for (Transaction t : visited.items)
+            {
+                if (transactions.contains(t))
+                    continue;
+                if (t instanceof AccountTransaction)
+                    orphanAccountTransactions.add((AccountTransaction) t);
+                else
+                    orphanPortfolioTransactions.add((PortfolioTransaction) t);
+            }
+
+            orphanAccountTransactions.forEach(transactions::add);
+            orphanPortfolioTransactions.forEach(transactions::add);
+        }
+
+        private void collect(Classification classification)
+        {
+            if (classification == null)
+                return;
+
+            for (Assignment assignment : classification.getAssignments())
+            {
+                if (assignment.getInvestmentVehicle() instanceof Security)
+                    securities.add((Security) assignment.getInvestmentVehicle());
+                else if (assignment.getInvestmentVehicle() instanceof Account)
+                    accounts.add((Account) assignment.getInvestmentVehicle());
+            }
+
+            for (Classification child : classification.getChildren())
+                collect(child);
+        }
+
+        private void visit(Transaction transaction) throws IOException
+        {
+            if (transaction == null || !visited.add(transaction))
+                return;
+
+            securities.add(transaction.getSecurity());
+
+            CrossEntry entry = transaction.getCrossEntry();
+            if (entry == null || !entries.add(entry))
+                return;
+
+            if (entry instanceof BuySellEntry)
+            {
+                BuySellEntry buysell = (BuySellEntry) entry;
+                portfolios.add(buysell.getPortfolio());
+                accounts.add(buysell.getAccount());
+                visit(buysell.getPortfolioTransaction());
+                visit(buysell.getAccountTransaction());
+            }
+            else if (entry instanceof AccountTransferEntry)
+            {
+                AccountTransferEntry transfer = (AccountTransferEntry) entry;
+                accounts.add(transfer.getSourceAccount());
+                accounts.add(transfer.getTargetAccount());
+                visit(transfer.getSourceTransaction());
+                visit(transfer.getTargetTransaction());
+            }
+            else if (entry instanceof PortfolioTransferEntry)
+            {
+                PortfolioTransferEntry transfer = (PortfolioTransferEntry) entry;
+                portfolios.add(transfer.getSourcePortfolio());
+                portfolios.add(transfer.getTargetPortfolio());
+                visit(transfer.getSourceTransaction());
+                visit(transfer.getTargetTransaction());
+            }
+            else
+            {
+                throw new IOException(entry.getClass().getName());
+            }
+        }
+
+        private void writeString(Output out, String value)
+        {
+            if (value == null)
+            {
+                out.writeVarInt(0);
+                return;
+            }
+
+            Integer id = strings.get(value);
+            if (id == null)
+            {
+                id = strings.size() + 1;
+                strings.put(value, id);
+
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                stringTable.writeVarInt(bytes.length);
+                stringTable.write(bytes, 0, bytes.length);
+            }
+            out.writeVarInt(id);
+        }
+
+        private void writeMoney(Output out, Money money)
+        {
+            if (money == null)
+            {
+                writeString(out, null);
+            }
+            else
+            {
+                writeString(out, money.getCurrencyCode());
+                out.writeSigned(money.getAmount());
+            }
+        }
+
+        private void writeMasterData(Output out) throws IOException
+        {
+            writeString(out, client.getBaseCurrency());
+
+            out.writeVarInt(securities.size());
+            out.writeVarInt(client.getSecurities().size());
+            for (Security security : securities.items)
+                writeSecurity(out, security);
+
+            out.writeVarInt(accounts.size());
+            out.writeVarInt(client.getAccounts().size());
+            for (Account account : accounts.items)
+            {
+                writeString(out, account.getUUID());
+                writeString(out, account.getName());
+                writeString(out, account.getCurrencyCode());
+                writeString(out, account.getNote());
+                out.writeBoolean(account.isRetired());
+            }
+
+            out.writeVarInt(portfolios.size());
+            out.writeVarInt(client.getPortfolios().size());
+            for (Portfolio portfolio : portfolios.items)
+            {
+                writeString(out, portfolio.getUUID());
+                writeString(out, portfolio.getName());
+                writeString(out, portfolio.getNote());
+                out.writeBoolean(portfolio.isRetired());
+                out.writeVarInt(accounts.reference(portfolio.getReferenceAccount()));
+            }
+
+            out.writeVarInt(client.getWatchlists().size());
+            for (Watchlist watchlist : client.getWatchlists())
+            {
+                writeString(out, watchlist.getName());
+                out.writeVarInt(watchlist.getSecurities().size());
+                for (Security security : watchlist.getSecurities())
+                    out.writeVarInt(securities.reference(security));
+            }
+
+            out.writeVarInt(client.getConsumerPriceIndices().size());
+            for (ConsumerPriceIndex index : client.getConsumerPriceIndices())
+            {
+                out.writeSigned(index.getYear());
+                out.writeSigned(index.getMonth());
+                out.writeSigned(index.getIndex());
+            }
+
+            out.writeVarInt(client.getProperties().size());
+            for (Map.Entry<String, String> entry : client.getProperties().entrySet())
+            {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+
+            writeSettings(out, client.getSettings());
+
+            out.writeVarInt(client.getTaxonomies().size());
+            for (Taxonomy taxonomy : client.getTaxonomies())
+            {
+                writeString(out, taxonomy.getId());
+                writeString(out, taxonomy.getName());
+
+                List<String> dimensions = taxonomy.getDimensions();
+                if (dimensions == null)
+                {
+                    out.writeVarInt(NULL);
+                }
+                else
+                {
+                    // dimensions created from the taxonomy templates are
+                    // fixed-size lists
+                    boolean isFixedSize = dimensions.getClass() == Arrays.asList().getClass();
+                    out.writeVarInt(isFixedSize ? FIXED_SIZE_LIST : ARRAY_LIST);
+                    out.writeVarInt(dimensions.size());
+                    for (String dimension : dimensions)
+                        writeString(out, dimension);
+                }
+
+                out.writeBoolean(taxonomy.getRoot() != null);
+                if (taxonomy.getRoot() != null)
+                    writeClassification(out, taxonomy.getRoot());
+            }
+        }
+
+        private void writeSecurity(Output out, Security security) throws IOException
+        {
+            writeString(out, security.getUUID());
+            writeString(out, security.getName());
+            writeString(out, security.getCurrencyCode());
+            writeString(out, security.getNote());
+            writeString(out, security.getIsin());
+            writeString(out, security.getTickerSymbol());
+            writeString(out, security.getWkn());
+            writeString(out, security.getFeed());
+            writeString(out, security.getFeedURL());
+            writeString(out, security.getLatestFeed());
+            writeString(out, security.getLatestFeedURL());
+
+            Map<String, Object> attributes = security.getAttributes().getMap();
+            out.writeVarInt(attributes.size());
+            for (Map.Entry<String, Object> entry : attributes.entrySet())
+            {
+                writeString(out, entry.getKey());
+                writeAttributeValue(out, entry.getValue());
+            }
+
+            out.writeVarInt(security.getEvents().size());
+            for (SecurityEvent event : security.getEvents())
+            {
+                out.writeDate(event.getDate());
+                writeString(out, event.getType() != null ? event.getType().name() : null);
+                writeString(out, event.getDetails());
+            }
+
+            out.writeBoolean(security.isRetired());
+        }
+
+        private void writeAttributeValue(Output out, Object value) throws IOException
+        {
+            if (value == null)
+            {
+                out.writeVarInt(NULL);
+            }
+            else if (value instanceof String)
+            {
+                out.writeVarInt(STRING_VALUE);
+                writeString(out, (String) value);
+            }
+            else if (value instanceof Long)
+            {
+                out.writeVarInt(LONG_VALUE);
+                out.writeSigned((Long) value);
+            }
+            else if (value instanceof Double)
+            {
+                out.writeVarInt(DOUBLE_VALUE);
+                out.writeVarLong(Double.doubleToRawLongBits((Double) value));
+            }
+            else if (value instanceof LocalDate)
+            {
+                out.writeVarInt(DATE_VALUE);
+                out.writeDate((LocalDate) value);
+            }
+            else
+            {
+                throw new IOException(value.getClass().getName());
+            }
+        }
+
+        private void writeSettings(Output out, ClientSettings settings)
+        {
+            out.writeVarInt(settings.getBookmarks().size());
+            for (Bookmark bookmark : settings.getBookmarks())
+            {
+                writeString(out, bookmark.getLabel());
+                writeString(out, bookmark.getPattern());
+            }
+
+            List<AttributeType> types = new ArrayList<>();
+            settings.getAttributeTypes().forEach(types::add);
+
+            out.writeVarInt(types.size());
+            for (AttributeType type : types)
+            {
+                writeString(out, type.getId());
+                writeString(out, type.getName());
+                writeString(out, type.getColumnLabel());
+                writeString(out, type.getTarget() != null ? type.getTarget().getName() : null);
+                writeString(out, type.getType() != null ? type.getType().getName() : null);
+                writeString(out, type.getConverterClass());
+            }
+        }
+
+        private void writeClassification(Output out, Classification classification) throws IOException
+        {
+            writeString(out, classification.getId());
+            writeString(out, classification.getName());
+            writeString(out, classification.getNote());
+            writeString(out, classification.getColor());
+            out.writeSigned(classification.getWeight());
+            out.writeSigned(classification.getRank());
+
+            out.writeVarInt(classification.getAssignments().size());
+            for (Assignment assignment : classification.getAssignments())
+            {
+                InvestmentVehicle vehicle = assignment.getInvestmentVehicle();
+                if (vehicle instanceof Security)
+                {
+                    out.writeVarInt(SECURITY);
+                    out.writeVarInt(securities.reference((Security) vehicle));
+                }
+                else if (vehicle instanceof Account)
+                {
+                    out.writeVarInt(ACCOUNT);
+                    out.writeVarInt(accounts.reference((Account) vehicle));
+                }
+                else
+                {
+                    out.writeVarInt(NULL);
+                }
+                out.writeSigned(assignment.getWeight());
+                out.writeSigned(assignment.getRank());
+            }
+
+            out.writeVarInt(classification.getChildren().size());
+            for (Classification child : classification.getChildren())
+                writeClassification(out, child);
+        }
+
+        private void writeTransactions(Output out) throws IOException
+        {
+            for (Account account : accounts.items)
+                writeAccountTransactions(out, account.getTransactions());
+            for (Portfolio portfolio : portfolios.items)
+                writePortfolioTransactions(out, portfolio.getTransactions());
+
+            writeAccountTransactions(out, orphanAccountTransactions);
+            writePortfolioTransactions(out, orphanPortfolioTransactions);
+
+            out.writeVarInt(entries.size());
+            for (CrossEntry entry : entries.items)
+            {
+                if (entry instanceof BuySellEntry)
+                {
+                    BuySellEntry buysell = (BuySellEntry) entry;
+                    out.writeVarInt(BUY_SELL_ENTRY);
+                    out.writeVarInt(portfolios.reference(buysell.getPortfolio()));
+                    out.writeVarInt(transactions.reference(buysell.getPortfolioTransaction()));
+                    out.writeVarInt(accounts.reference(buysell.getAccount()));
+                    out.writeVarInt(transactions.reference(buysell.getAccountTransaction()));
+                }
+                else if (entry instanceof AccountTransferEntry)
+                {
+                    AccountTransferEntry transfer = (AccountTransferEntry) entry;
+                    out.writeVarInt(ACCOUNT_TRANSFER_ENTRY);
+                    out.writeVarInt(accounts.reference(transfer.getSourceAccount()));
+                    out.writeVarInt(transactions.reference(transfer.getSourceTransaction()));
+                    out.writeVarInt(accounts.reference(transfer.getTargetAccount()));
+                    out.writeVarInt(transactions.reference(transfer.getTargetTransaction()));
+                }
+                else
+                {
+                    PortfolioTransferEntry transfer = (PortfolioTransferEntry) entry;
+                    out.writeVarInt(PORTFOLIO_TRANSFER_ENTRY);
+                    out.writeVarInt(portfolios.reference(transfer.getSourcePortfolio()));
+                    out.writeVarInt(transactions.reference(transfer.getSourceTransaction()));
+                    out.writeVarInt(portfolios.reference(transfer.getTargetPortfolio()));
+                    out.writeVarInt(transactions.reference(transfer.getTargetTransaction()));
+                }
+            }
+
+            out.writeVarInt(client.getPlans().size());
+            for (InvestmentPlan plan : client.getPlans())
+            {
+                writeString(out, plan.getName());
+                writeString(out, plan.getNote());
+                out.writeVarInt(securities.reference(plan.getSecurity()));
+                out.writeVarInt(portfolios.reference(plan.getPortfolio()));
+                out.writeVarInt(accounts.reference(plan.getAccount()));
+                out.writeDate(plan.getStart());
+                out.writeSigned(plan.getInterval());
+                out.writeSigned(plan.getAmount());
+                out.writeSigned(plan.getFees());
+
+                out.writeVarInt(plan.getTransactions().size());
+                for (PortfolioTransaction t : plan.getTransactions())
+                    out.writeVarInt(transactions.reference(t));
+            }
+        }
+
+        private void writeAccountTransactions(Output out, List<AccountTransaction> list) throws IOException
+        {
+            out.writeVarInt(list.size());
+            for (AccountTransaction t : list)
+            {
+                writeString(out, t.getType() != null ? t.getType().name() : null);
+                writeTransaction(out, t);
+            }
+        }
+
+        private void writePortfolioTransactions(Output out, List<PortfolioTransaction> list) throws IOException
+        {
+            out.writeVarInt(list.size());
+            for (PortfolioTransaction t : list)
+            {
+                writeString(out, t.getType() != null ? t.getType().name() : null);
+                writeTransaction(out, t);
+            }
+        }
+
+        private void writeTransaction(Output out, Transaction t) throws IOException
+        {
+            out.writeDate(t.getDate());
+            writeString(out, t.getCurrencyCode());
+            out.writeSigned(t.getAmount());
+            out.writeVarInt(securities.reference(t.getSecurity()));
+            out.writeVarInt(entries.reference(t.getCrossEntry()));
+            out.writeSigned(t.getShares());
+            writeString(out, t.getNote());
+
+            List<Transaction.Unit> units = new ArrayList<>();
+            t.getUnits().forEach(units::add);
+
+            out.writeVarInt(units.size());
+            for (Transaction.Unit unit : units)
+            {
+                writeString(out, unit.getType().name());
+                writeMoney(out, unit.getAmount());
+                writeMoney(out, unit.getForex());
+                writeString(out, unit.getExchangeRate() != null ? unit.getExchangeRate().toString() : null);
+            }
+        }
+
+        private void writePrices(Output out) throws IOException
+        {
+            if (!withQuotes)
+            {
+                out.writeVarInt(0);
+                return;
+            }
+
+            List<Security> quoted = new ArrayList<>();
+            List<LatestSecurityPrice> latest = new ArrayList<>();
+            for (Security security : securities.items)
+            {
+                LatestSecurityPrice l = security.getLatest();
+                if (l != null || hasPrices(security.getPriceSeries()))
+                {
+                    quoted.add(security);
+                    latest.add(l);
+                }
+            }
+
+            out.writeVarInt(quoted.size());
+            for (int index = 0; index < quoted.size(); index++)
+            {
+                Security security = quoted.get(index);
+                PriceSeries prices = security.getPriceSeries();
+
+                out.writeVarInt(securities.reference(security));
+                writeLatest(out, latest.get(index));
+
+                // quotes which have not been accessed since reading the file
+                // are written without decoding them
+                Supplier<PriceSeries> loader = prices.getLoader();
+                if (loader instanceof PriceBlock)
+                {
+                    PriceBlock block = (PriceBlock) loader;
+                    out.writeVarInt(block.count);
+                    out.write(block.buffer, block.offset, block.length);
+                    continue;
+                }
+
+                // the quotes might be updated by another thread while writing
+                PriceSeries copy = prices.copyFrom(Integer.MIN_VALUE);
+                out.writeVarInt(copy.size());
+                if (!copy.isEmpty())
+                    writeBlock(out, copy, 0);
+            }
+        }
+
+        private boolean hasPrices(PriceSeries prices)
+        {
+            return prices.getLoader() instanceof PriceBlock || !prices.isEmpty();
+        }
+    }
+
+    private static final class Reader
+    {
+        private String[] strings = new String[] { null };
+
+        private Security[] securities;
+        private Account[] accounts;
+        private Portfolio[] portfolios;
+        private final List<Transaction> transactions = new ArrayList<>();
+
+        private Client read(DataInputStream in) throws IOException
+        {
+            Client client = new Client();
+            client.setVersion(in.readInt());
+
+            int expected = STRINGS;
+
+            int tag;
+            while ((tag = in.readUnsignedByte()) != END)
+            {
+                byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+
+                if (tag == GENERATION && expected > PRICES)
+                {
+                    client.setJournal(new ClientJournal(new Input(payload).readVarLong()));
+                    continue;
+                }
+
+                // sections unknown to this version are skipped
+                if (tag > PRICES)
+                    continue;
+
+                // sections refer to the content of the previous sections
+                if (tag != expected)
+                    throw new IOException(String.valueOf(tag));
+                expected++;
+
+                Input input = new Input(payload);
+                switch (tag)
+                {
+                    case STRINGS:
+                        readStrings(input);
+                        break;
+                    case MASTER_DATA:
+                        readMasterData(input, client);
+                        break;
+                    case TRANSACTIONS:
+                        readTransactions(input, client);
+                        break;
+                    case PRICES:
+                        readPrices(input);
+                        break;
+                    default:
+                        throw new IOException(String.valueOf(tag));
+                }
+            }
+
+            if (expected <= PRICES)
+                throw new EOFException();
+
+            return client;
+        }
+
+        private void readStrings(Input in) throws IOException
+        {
+            int size = in.readVarInt();
+
+            strings = new String[size + 1];
+            for (int ii = 1; ii <= size; ii++)
+            {
+                int length = in.readVarInt();
+                if (in.position + length > in.buffer.length)
+                    throw new EOFException();
+                strings[ii] = new String(in.buffer, in.position, length, StandardCharsets.UTF_8);
+                in.position += length;
+            }
+        }
+
+        private String readString(Input in) throws IOException
+        {
+            int id = in.readVarInt();
+            if (id >= strings.length)
+                throw new IOException(String.valueOf(id));
+            return strings[id];
+        }
+
+        private Money readMoney(Input in) throws IOException
+        {
+            String currencyCode = readString(in);
+            return currencyCode == null ? null : Money.of(currencyCode, in.readSigned());
+        }
+
+        private static <T> T resolve(T[] objects, int reference) throws IOException
+        {
+            if (reference == 0)
+                return null;
+            if (reference > objects.length)
+                throw new IOException(String.valueOf(reference));
+            return objects[reference - 1];
+        }
+
+        private Security readSecurityReference(Input in) throws IOException
+        {
+            return resolve(securities, in.readVarInt());
+        }
+
+        private Account readAccountReference(Input in) throws IOException
+        {
+            return resolve(accounts, in.readVarInt());
+        }
+
+        private Portfolio readPortfolioReference(Input in) throws IOException
+        {
+            return resolve(portfolios, in.readVarInt());
+        }
+
+        private <T extends Transaction> T readTransactionReference(Input in, Class<T> type) throws IOException
+        {
+            int reference = in.readVarInt();
+            if (reference == 0)
+                return null;
+            if (reference > transactions.size())
+                throw new IOException(String.valueOf(reference));
+            return type.cast(transactions.get(reference - 1));
+        }
+
+        private void readMasterData(Input in, Client client) throws IOException
+        {
+            client.setBaseCurrency(readString(in));
+
+            securities = new Security[in.readVarInt()];
+            int owned = in.readVarInt();
+            for (int ii = 0; ii < securities.length; ii++)
+            {
+                securities[ii] = readSecurity(in);
+                if (ii < owned)
+                    client.addSecurity(securities[ii]);
+            }
+
+            accounts = new Account[in.readVarInt()];
+            owned = in.readVarInt();
+            for (int ii = 0; ii < accounts.length; ii++)
+            {
+                Account account = new Account();
+                account.setUUID(readString(in));
+                account.setName(readString(in));
+                account.setCurrencyCode(readString(in));
+                account.setNote(readString(in));
+                account.setRetired(in.readBoolean());
+
+                accounts[ii] = account;
+                if (ii < owned)
+                    client.addAccount(account);
+            }
+
+            portfolios = new Portfolio[in.readVarInt()];
+            owned = in.readVarInt();
+            for (int ii = 0; ii < portfolios.length; ii++)
+            {
+                Portfolio portfolio = new Portfolio();
+                portfolio.setUUID(readString(in));
+                portfolio.setName(readString(in));
+                portfolio.setNote(readString(in));
+                portfolio.setRetired(in.readBoolean());
+                portfolio.setReferenceAccount(readAccountReference(in));
+
+                portfolios[ii] = portfolio;
+                if (ii < owned)
+                    client.addPortfolio(portfolio);
+            }
+
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                Watchlist watchlist = new Watchlist();
+                watchlist.setName(readString(in));
+                int count = in.readVarInt();
+                for (int jj = 0; jj < count; jj++)
+                    watchlist.addSecurity(readSecurityReference(in));
+                client.getWatchlists().add(watchlist);
+            }
+
+            size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                ConsumerPriceIndex index = new ConsumerPriceIndex();
+                index.setYear((int) in.readSigned());
+                index.setMonth((int) in.readSigned());
+                index.setIndex((int) in.readSigned());
+                client.addConsumerPriceIndex(index);
+            }
+
+            size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                String key = readString(in);
+                client.setProperty(key, readString(in));
+            }
+
+            client.setSettings(readSettings(in));
+
+            size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                Taxonomy taxonomy = new Taxonomy();
+                taxonomy.setId(readString(in));
+                taxonomy.setName(readString(in));
+
+                int type = in.readVarInt();
+                if (type != NULL)
+                {
+                    String[] dimensions = new String[in.readVarInt()];
+                    for (int jj = 0; jj < dimensions.length; jj++)
+                        dimensions[jj] = readString(in);
+                    taxonomy.setDimensions(type == FIXED_SIZE_LIST ? Arrays.asList(dimensions)
+                                    : new ArrayList<>(Arrays.asList(dimensions)));
+                }
+
+                if (in.readBoolean())
+                    taxonomy.setRootNode(readClassification(in, null));
+
+                client.addTaxonomy(taxonomy);
+            }
+        }
+
+        private Security readSecurity(Input in) throws IOException
+        {
+            Security security = new Security();
+            security.setUUID(readString(in));
+            security.setName(readString(in));
+            security.setCurrencyCode(readString(in));
+            security.setNote(readString(in));
+            security.setIsin(readString(in));
+            security.setTickerSymbol(readString(in));
+            security.setWkn(readString(in));
+            security.setFeed(readString(in));
+            security.setFeedURL(readString(in));
+            security.setLatestFeed(readString(in));
+            security.setLatestFeedURL(readString(in));
+
+            int size = in.readVarInt();
+            if (size > 0)
+            {
+                Map<String, Object> attributes = security.getAttributes().getMap();
+                for (int ii = 0; ii < size; ii++)
+                {
+                    String key = readString(in);
+                    attributes.put(key, readAttributeValue(in));
+                }
+            }
+
+            size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                LocalDate date = in.readDate();
+                String type = readString(in);
+                security.addEvent(new SecurityEvent(date, type != null ? SecurityEvent.Type.valueOf(type) : null,
+                                readString(in)));
+            }
+
+            security.setRetired(in.readBoolean());
+
+            return security;
+        }
+
+        private Object readAttributeValue(Input in) throws IOException
+        {
+            int type = in.readVarInt();
+            switch (type)
+            {
+                case NULL:
+                    return null;
+                case STRING_VALUE:
+                    return readString(in);
+                case LONG_VALUE:
+                    return in.readSigned();
+                case DOUBLE_VALUE:
+                    return Double.longBitsToDouble(in.readVarLong());
+                case DATE_VALUE:
+                    return in.readDate();
+                default:
+                    throw new IOException(String.valueOf(type));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private ClientSettings readSettings(Input in) throws IOException
+        {
+            int size = in.readVarInt();
+            List<Bookmark> bookmarks = new ArrayList<>(size);
+            for (int ii = 0; ii < size; ii++)
+            {
+                String label = readString(in);
+                bookmarks.add(new Bookmark(label, readString(in)));
+            }
+
+            size = in.readVarInt();
+            List<AttributeType> attributeTypes = new ArrayList<>(size);
+            for (int ii = 0; ii < size; ii++)
+            {
+                AttributeType attributeType = new AttributeType(readString(in));
+                attributeType.setName(readString(in));
+                attributeType.setColumnLabel(readString(in));
+                attributeType.setTarget((Class<? extends Attributable>) loadClass(readString(in)));
+                attributeType.setType(loadClass(readString(in)));
+                Class<?> converter = loadClass(readString(in));
+                if (converter != null)
+                    attributeType.setConverter(converter.asSubclass(AttributeType.Converter.class));
+                attributeTypes.add(attributeType);
+            }
+
+            return new ClientSettings(bookmarks, attributeTypes);
+        }
+
+        private Class<?> loadClass(String name) throws IOException
+        {
+            if (name == null)
+                return null;
+
+            try
+            {
+                return Class.forName(name, false, ClientBinaryFormat.class.getClassLoader());
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        private Classification readClassification(Input in, Classification parent) throws IOException
+        {
+            Classification classification = new Classification();
+            classification.setId(readString(in));
+            classification.setName(readString(in));
+            classification.setNote(readString(in));
+            classification.setColor(readString(in));
+            classification.setWeight((int) in.readSigned());
+            classification.setRank((int) in.readSigned());
+            classification.setParent(parent);
+
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                int type = in.readVarInt();
+                InvestmentVehicle vehicle;
+                if (type == SECURITY)
+                    vehicle = readSecurityReference(in);
+                else if (type == ACCOUNT)
+                    vehicle = readAccountReference(in);
+                else if (type == NULL)
+                    vehicle = null;
+                else
+                    throw new IOException(String.valueOf(type));
+
+                Assignment assignment = new Assignment(vehicle);
+                assignment.setWeight((int) in.readSigned());
+                assignment.setRank((int) in.readSigned());
+                classification.addAssignment(assignment);
+            }
+
+            size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+                classification.addChild(readClassification(in, classification));
+
+            return classification;
+        }
+
+        private void readTransactions(Input in, Client client) throws IOException
+        {
+            List<Integer> crossEntries = new ArrayList<>();
+
+            for (Account account : accounts)
+                readAccountTransactions(in, account, crossEntries);
+            for (Portfolio portfolio : portfolios)
+                readPortfolioTransactions(in, portfolio, crossEntries);
+
+            readAccountTransactions(in, null, crossEntries);
+            readPortfolioTransactions(in, null, crossEntries);
+
+            CrossEntry[] entries = new CrossEntry[in.readVarInt()];
+            for (int ii = 0; ii < entries.length; ii++)
+            {
+                int type = in.readVarInt();
+                switch (type)
+                {
+                    case BUY_SELL_ENTRY:
+                        BuySellEntry buysell = new BuySellEntry();
+                        buysell.setPortfolio(readPortfolioReference(in));
+                        buysell.setPortfolioTransaction(readTransactionReference(in, PortfolioTransaction.class));
+                        buysell.setAccount(readAccountReference(in));
+                        buysell.setAccountTransaction(readTransactionReference(in, AccountTransaction.class));
+                        entries[ii] = buysell;
+                        break;
+                    case ACCOUNT_TRANSFER_ENTRY:
+                        AccountTransferEntry accountTransfer = new AccountTransferEntry();
+                        accountTransfer.setSourceAccount(readAccountReference(in));
+                        accountTransfer.setSourceTransaction(readTransactionReference(in, AccountTransaction.class));
+                        accountTransfer.setTargetAccount(readAccountReference(in));
+                        accountTransfer.setTargetTransaction(readTransactionReference(in, AccountTransaction.class));
+                        entries[ii] = accountTransfer;
+                        break;
+                    case PORTFOLIO_TRANSFER_ENTRY:
+                        PortfolioTransferEntry portfolioTransfer = new PortfolioTransferEntry();
+                        portfolioTransfer.setSourcePortfolio(readPortfolioReference(in));
+                        portfolioTransfer.setSourceTransaction(
+                                        readTransactionReference(in, PortfolioTransaction.class));
+                        portfolioTransfer.setTargetPortfolio(readPortfolioReference(in));
+                        portfolioTransfer.setTargetTransaction(
+                                        readTransactionReference(in, PortfolioTransaction.class));
+                        entries[ii] = portfolioTransfer;
+                        break;
+                    default:
+                        throw new IOException(String.valueOf(type));
+                }
+            }
+
+            for (int ii = 0; ii < transactions.size(); ii++)
+                transactions.get(ii).setCrossEntry(resolve(entries, crossEntries.get(ii)));
+
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                InvestmentPlan plan = new InvestmentPlan();
+                plan.setName(readString(in));
+                plan.setNote(readString(in));
+                plan.setSecurity(readSecurityReference(in));
+                plan.setPortfolio(readPortfolioReference(in));
+                plan.setAccount(readAccountReference(in));
+                plan.setStart(in.readDate());
+                plan.setInterval((int) in.readSigned());
+                plan.setAmount(in.readSigned());
+                plan.setFees(in.readSigned());
+
+                int count = in.readVarInt();
+                for (int jj = 0; jj < count; jj++)
+                    plan.getTransactions().add(readTransactionReference(in, PortfolioTransaction.class));
+
+                client.addPlan(plan);
+            }
+        }
+
+        private void readAccountTransactions(Input in, Account account, List<Integer> crossEntries)
+                        throws IOException
+        {
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                AccountTransaction t = new AccountTransaction();
+                String type = readString(in);
+                t.setType(type != null ? AccountTransaction.Type.valueOf(type) : null);
+                crossEntries.add(readTransaction(in, t));
+
+                transactions.add(t);
+                if (account != null)
+                    account.addTransaction(t);
+            }
+        }
+
+        private void readPortfolioTransactions(Input in, Portfolio portfolio, List<Integer> crossEntries)
+                        throws IOException
+        {
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                PortfolioTransaction t = new PortfolioTransaction();
+                String type = readString(in);
+                t.setType(type != null ? PortfolioTransaction.Type.valueOf(type) : null);
+                crossEntries.add(readTransaction(in, t));
+
+                transactions.add(t);
+                if (portfolio != null)
+                    portfolio.addTransaction(t);
+            }
+        }
+
+        /**
+         * Reads the common fields of a transaction.
+         *
+         * @return reference to the cross entry which is read after all
+         *         transactions
+         */
+        private int readTransaction(Input in, Transaction t) throws IOException
+        {
+            t.setDate(in.readDate());
+            t.setCurrencyCode(readString(in));
+            t.setAmount(in.readSigned());
+            t.setSecurity(readSecurityReference(in));
+            int crossEntry = in.readVarInt();
+            t.setShares(in.readSigned());
+            t.setNote(readString(in));
+
+            int size = in.readVarInt();
+            if (size > 0)
+            {
+                List<Transaction.Unit> units = new ArrayList<>(size);
+                for (int ii = 0; ii < size; ii++)
+                {
+                    Transaction.Unit.Type type = Transaction.Unit.Type.valueOf(readString(in));
+                    Money amount = readMoney(in);
+                    Money forex = readMoney(in);
+                    String exchangeRate = readString(in);
+
+                    if (forex == null && exchangeRate == null)
+                        units.add(new Transaction.Unit(type, amount));
+                    else
+                        units.add(new Transaction.Unit(type, amount, forex,
+                                        exchangeRate != null ? new BigDecimal(exchangeRate) : null, false));
+                }
+
+                // add units without checking the currency (as XStream does)
+                t.addUnits(units.stream());
+            }
+
+            return crossEntry;
+        }
+
+        private void readPrices(Input in) throws IOException
+        {
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                Security security = readSecurityReference(in);
+                if (security == null)
+                    throw new IOException();
+
+                security.setLatest(readLatest(in));
+
+                int count = in.readVarInt();
+                if (count == 0)
+                    continue;
+
+                // only index the block, the quotes are decoded when the
+                // series is accessed first
+                int offset = in.position;
+                in.skipVarInts(count);
+                in.skipVarInts(count);
+
+                security.getPriceSeries().setLoader(new PriceBlock(in.buffer, offset, in.position - offset, count));
+            }
+        }
+    }
+
+    /**
+     * Writes the quotes of the series starting at the given index: the epoch
+     * day of the first quote followed by the deltas of the following days,
+     * then the deltas of the values.
+     */
+    private static void writeBlock(Output out, PriceSeries prices, int from)
+    {
+        // quotes are sorted by date, hence the day deltas are positive
+        int previousDay = prices.getEpochDay(from);
+        out.writeSigned(previousDay);
+        for (int ii = from + 1; ii < prices.size(); ii++)
+        {
+            int day = prices.getEpochDay(ii);
+            out.writeVarInt(day - previousDay);
+            previousDay = day;
+        }
+
+        long previousValue = 0;
+        for (int ii = from; ii < prices.size(); ii++)
+        {
+            long value = prices.getValue(ii);
+            out.writeSigned(value - previousValue);
+            previousValue = value;
+        }
+    }
+
+    private static void readBlock(Input in, PriceSeries prices, int count) throws IOException
+    {
+        int[] days = new int[count];
+        long[] values = new long[count];
+
+        days[0] = (int) in.readSigned();
+        for (int ii = 1; ii < count; ii++)
+            days[ii] = days[ii - 1] + in.readVarInt();
+
+        long value = 0;
+        for (int ii = 0; ii < count; ii++)
+        {
+            value += in.readSigned();
+            values[ii] = value;
+        }
+
+        prices.merge(days, values, count);
+    }
+
+    private static void writeLatest(Output out, LatestSecurityPrice latest)
+    {
+        out.writeBoolean(latest != null);
+        if (latest != null)
+        {
+            out.writeDate(latest.getTime());
+            out.writeSigned(latest.getValue());
+            out.writeSigned(latest.getHigh());
+            out.writeSigned(latest.getLow());
+            out.writeSigned(latest.getVolume());
+            out.writeSigned(latest.getPreviousClose());
+        }
+    }
+
+    private static LatestSecurityPrice readLatest(Input in) throws IOException
+    {
+        if (!in.readBoolean())
+            return null;
+
+        LatestSecurityPrice latest = new LatestSecurityPrice();
+        latest.setTime(in.readDate());
+        latest.setValue(in.readSigned());
+        latest.setHigh(in.readSigned());
+        latest.setLow(in.readSigned());
+        latest.setVolume((int) in.readSigned());
+        latest.setPreviousClose(in.readSigned());
+        return latest;
+    }
+
+    private static void writeUUID(Output out, String uuid)
+    {
+        byte[] bytes = uuid.getBytes(StandardCharsets.UTF_8);
+        out.writeVarInt(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readUUID(Input in) throws IOException
+    {
+        int length = in.readVarInt();
+        if (in.position + length > in.buffer.length)
+            throw new EOFException();
+        String uuid = new String(in.buffer, in.position, length, StandardCharsets.UTF_8);
+        in.position += length;
+        return uuid;
+    }
+
+    /**
+     * Encodes changed quotes for the journal. For each security, the
+     * historical quotes are replaced starting with the given epoch day. The
+     * latest quote is replaced for the given securities.
+     */
+    /* package */static byte[] writeQuotes(Map<Security, Integer> changedPrices, List<Security> changedLatest)
+    {
+        Output out = new Output();
+
+        out.writeVarInt(changedPrices.size());
+        for (Map.Entry<Security, Integer> entry : changedPrices.entrySet())
+        {
+            int from = entry.getValue();
+
+            // the quotes might be updated by another thread while writing
+            PriceSeries prices = entry.getKey().getPriceSeries().copyFrom(from);
+
+            writeUUID(out, entry.getKey().getUUID());
+            out.writeSigned(from);
+            out.writeVarInt(prices.size());
+            if (!prices.isEmpty())
+                writeBlock(out, prices, 0);
+        }
+
+        out.writeVarInt(changedLatest.size());
+        for (Security security : changedLatest)
+        {
+            writeUUID(out, security.getUUID());
+            writeLatest(out, security.getLatest());
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Applies quotes encoded by {@link #writeQuotes} to the securities of the
+     * client.
+     */
+    /* package */static void readQuotes(byte[] payload, Client client) throws IOException
+    {
+        Map<String, Security> uuid2security = new HashMap<>();
+        client.getSecurities().forEach(s -> uuid2security.put(s.getUUID(), s));
+
+        try
+        {
+            Input in = new Input(payload);
+
+            int size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                Security security = uuid2security.get(readUUID(in));
+                if (security == null)
+                    throw new IOException();
+
+                int from = (int) in.readSigned();
+                int count = in.readVarInt();
+
+                PriceSeries prices = security.getPriceSeries();
+                prices.removeFrom(from);
+                if (count > 0)
+                    readBlock(in, prices, count);
+            }
+
+            size = in.readVarInt();
+            for (int ii = 0; ii < size; ii++)
+            {
+                Security security = uuid2security.get(readUUID(in));
+                if (security == null)
+                    throw new IOException();
+                security.setLatest(readLatest(in));
+            }
+
+            if (in.position != payload.length)
+                throw new IOException();
+        }
+        catch (RuntimeException e)
+        {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Encoded quotes of a security: the epoch day of the first quote followed
+     * by the deltas of the following days, then the deltas of the values.
+     */
+    private static final class PriceBlock implements Supplier<PriceSeries>
+    {
+        private final byte[] buffer;
+        private final int offset;
+        private final int length;
+        private final int count;
+
+        private PriceBlock(byte[] buffer, int offset, int length, int count)
+        {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+        }
+
+        @Override
+        public PriceSeries get()
+        {
+            try
+            {
+                Input in = new Input(buffer);
+                in.position = offset;
+
+                PriceSeries prices = new PriceSeries();
+                readBlock(in, prices, count);
+                return prices;
+            }
+            catch (IOException e)
+            {
+                // the block has been checked when reading the file
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package name.abuchen.portfolio.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -13,19 +15,28 @@ import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.AlgorithmParameters;
 import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.text.MessageFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -39,13 +50,19 @@ import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
+import javax.xml.stream.XMLStreamException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
 import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import com.thoughtworks.xstream.mapper.Mapper;
 
 import name.abuchen.portfolio.Messages;
@@ -84,13 +101,67 @@ public class ClientFactory
 
     }
 
+    /**
+     * Writes the historical quotes in the same format as a list of
+     * {@link SecurityPrice} objects, i.e. as price elements with the date and
+     * value as attributes.
+     */
+    private static class PriceSeriesConverter implements Converter
+    {
+        @Override
+        public boolean canConvert(@SuppressWarnings("rawtypes") Class type)
+        {
+            return type == PriceSeries.class;
+        }
+
+        @Override
+        public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context)
+        {
+            PriceSeries prices = (PriceSeries) source;
+
+            for (int ii = 0; ii < prices.size(); ii++)
+            {
+                writer.startNode("price"); //$NON-NLS-1$
+                writer.addAttribute("t", prices.getDate(ii).toString()); //$NON-NLS-1$
+                writer.addAttribute("v", Long.toString(prices.getValue(ii))); //$NON-NLS-1$
+                writer.endNode();
+            }
+        }
+
+        @Override
+        public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context)
+        {
+            PriceSeries prices = new PriceSeries();
+
+            while (reader.hasMoreChildren())
+            {
+                reader.moveDown();
+                LocalDate date = LocalDate.parse(reader.getAttribute("t")); //$NON-NLS-1$
+                long value = Long.parseLong(reader.getAttribute("v")); //$NON-NLS-1$
+                prices.put((int) date.toEpochDay(), value);
+                reader.moveUp();
+            }
+
+            prices.trimToSize();
+            return prices;
+        }
+    }
+
     private static class XmlSerialization
     {
+        private static final int PEEK_LENGTH = 256;
+        private static final Pattern VERSION = Pattern.compile("<client>\\s*<version>(\\d+)</version>"); //$NON-NLS-1$
+
         public Client load(Reader input) throws IOException
         {
             try
             {
-                Client client = (Client) xstream().fromXML(input);
+                BufferedReader reader = new BufferedReader(input);
+
+                // files of the current version are read with the streaming
+                // reader, older versions are read (and upgraded) via XStream
+                Client client = peekVersion(reader) == Client.CURRENT_VERSION ? ClientXmlReader.read(reader)
+                                : (Client) xstream().fromXML(reader);
 
                 if (client.getVersion() > Client.CURRENT_VERSION)
                     throw new IOException(MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled,
@@ -100,12 +171,31 @@ public class ClientFactory
 
                 return client;
             }
-            catch (XStreamException e)
+            catch (XStreamException | XMLStreamException e)
             {
                 throw new IOException(MessageFormat.format(Messages.MsgXMLFormatInvalid, e.getMessage()), e);
             }
         }
 
+        private int peekVersion(BufferedReader reader) throws IOException
+        {
+            char[] buffer = new char[PEEK_LENGTH];
+            int length = 0;
+
+            reader.mark(PEEK_LENGTH);
+            while (length < buffer.length)
+            {
+                int read = reader.read(buffer, length, buffer.length - length);
+                if (read < 0)
+                    break;
+                length += read;
+            }
+            reader.reset();
+
+            Matcher matcher = VERSION.matcher(CharBuffer.wrap(buffer, 0, length));
+            return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+        }
+
         void save(Client client, OutputStream output) throws IOException
         {
             Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
@@ -128,7 +218,12 @@ public class ClientFactory
         @Override
         public Client load(InputStream input) throws IOException
         {
-            return new XmlSerialization().load(new InputStreamReader(input, StandardCharsets.UTF_8));
+            // files are recognized by signature, not by extension
+            InputStream buffered = new BufferedInputStream(input);
+            if (ClientBinaryFormat.hasSignature(buffered))
+                return new BinaryWriter().load(buffered);
+
+            return new XmlSerialization().load(new InputStreamReader(buffered, StandardCharsets.UTF_8));
         }
 
         @Override
@@ -138,6 +233,29 @@ public class ClientFactory
         }
     }
 
+    private static class BinaryWriter implements ClientPersister
+    {
+        @Override
+        public Client load(InputStream input) throws IOException
+        {
+            Client client = ClientBinaryFormat.read(input);
+
+            if (client.getVersion() > Client.CURRENT_VERSION)
+                throw new IOException(MessageFormat.format(Messages.MsgUnsupportedVersionClientFiled,
+                                client.getVersion()));
+
+            upgradeModel(client);
+
+            return client;
+        }
+
+        @Override
+        public void save(Client client, OutputStream output) throws IOException
+        {
+            ClientBinaryFormat.write(client, output);
+        }
+    }
+
     private static class Decryptor implements ClientPersister
     {
         private static final byte[] SIGNATURE = new byte[] { 'P', 'O', 'R', 'T', 'F', 'O', 'L', 'I', 'O' };
@@ -312,6 +430,11 @@ public class ClientFactory
         return file.getName().endsWith(".portfolio"); //$NON-NLS-1$
     }
 
+    public static boolean isBinary(File file)
+    {
+        return file.getName().endsWith(".ppb"); //$NON-NLS-1$
+    }
+
     public static boolean isKeyLengthSupported(int keyLength)
     {
         try
@@ -339,7 +462,11 @@ public class ClientFactory
             monitor.beginTask(MessageFormat.format(Messages.MsgReadingFile, file.getName()), 20);
             input = new ProgressMonitorInputStream(new FileInputStream(file), increment, monitor);
 
-            return buildPersister(file, null, password).load(input);
+            Client client = buildPersister(file, null, password).load(input);
+
+            // binary files keep the changes since the last save in a journal
+            ClientJournal journal = client.getJournal();
+            return journal != null ? journal.replay(client, file) : client;
         }
         catch (FileNotFoundException e)
         {
@@ -367,33 +494,121 @@ public class ClientFactory
 
     public static Client load(InputStream input) throws IOException
     {
-        return load(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try
+        {
+            return new PlainWriter().load(input);
+        }
+        finally
+        {
+            if (input != null)
+                input.close();
+        }
     }
 
     public static void save(final Client client, final File file, String method, char[] password) throws IOException
+    {
+        save(client, file, method, password, () -> true);
+    }
+
+    /**
+     * Saves the client to a temporary file which then replaces the file.
+     * <p/>
+     * If the client is saved outside of the UI thread, it can be modified
+     * while being written. Before the file is replaced, isUnchanged is asked
+     * whether the client has been modified meanwhile, for example by comparing
+     * the {@link Client#getRevision() revision}. If so, the written state
+     * might be inconsistent and the file is not replaced.
+     *
+     * @return true if the file has been replaced
+     */
+    public static boolean save(Client client, File file, String method, char[] password, BooleanSupplier isUnchanged)
+                    throws IOException
     {
         if (isEncrypted(file) && password == null && client.getSecret() == null)
             throw new IOException(Messages.MsgPasswordMissing);
 
-        OutputStream output = null;
+        // writing a binary file starts a new generation of its journal
+        ClientJournal journal = isBinary(file) ? new ClientJournal(ThreadLocalRandom.current().nextLong()) : null;
+        client.setJournal(journal);
+
+        File temporary = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+        ClientJournal.Changes changes = null;
+        long fileLength;
+        boolean isReplaced = false;
 
         try
         {
-            output = new FileOutputStream(file);
+            FileOutputStream output = new FileOutputStream(temporary);
+            try
+            {
+                // the digest of the journal is taken from the written data
+                if (journal != null)
+                    changes = journal.write(client, output);
+                else
+                    buildPersister(file, method, password).save(client, output);
+                output.getFD().sync();
+            }
+            finally
+            {
+                output.close();
+            }
+
+            fileLength = temporary.length();
+
+            if (!isUnchanged.getAsBoolean())
+                return false;
+
+            try
+            {
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                                StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
 
-            buildPersister(file, method, password).save(client, output);
+            isReplaced = true;
         }
         finally
         {
-            if (output != null)
-                output.close();
+            // the journal belongs to the temporary file only
+            if (!isReplaced)
+                client.setJournal(null);
+
+            Files.deleteIfExists(temporary.toPath());
+        }
+
+        if (journal != null)
+        {
+            journal.written(changes, file, fileLength);
+
+            // the journal belongs to the previous generation of the file
+            Files.deleteIfExists(ClientJournal.getJournalFile(file).toPath());
         }
+
+        return true;
+    }
+
+    /**
+     * Saves the changes since the client has been loaded or saved by appending
+     * them to the journal of the file. Only binary files have a journal.
+     *
+     * @return false if the client must be saved with
+     *         {@link #save(Client, File, String, char[])} instead
+     */
+    public static boolean saveIncrementally(Client client, File file) throws IOException
+    {
+        ClientJournal journal = client.getJournal();
+        return journal != null && isBinary(file) && journal.append(client, file);
     }
 
     private static ClientPersister buildPersister(File file, String method, char[] password)
     {
         if (file != null && isEncrypted(file))
             return new Decryptor(method, password);
+        else if (file != null && isBinary(file))
+            return new BinaryWriter();
         else
             return new PlainWriter();
     }
@@ -889,7 +1104,8 @@ public class ClientFactory
 
         for (Security security : client.getSecurities())
         {
-            security.getPrices().stream().forEach(p -> p.setValue(p.getValue() * decimalPlacesAdded));
+            security.getPrices().stream().forEach(p -> security
+                            .addPrice(new SecurityPrice(p.getTime(), p.getValue() * decimalPlacesAdded)));
             if (security.getLatest() != null)
             {
                 LatestSecurityPrice l = security.getLatest();
@@ -934,6 +1150,7 @@ public class ClientFactory
                     xstream.registerConverter(new XStreamLocalDateConverter());
                     xstream.registerConverter(new PortfolioTransactionConverter(xstream.getMapper(),
                                     xstream.getReflectionProvider()));
+                    xstream.registerConverter(new PriceSeriesConverter());
 
                     xstream.useAttributeFor(Money.class, "amount");
                     xstream.useAttributeFor(Money.class, "currencyCode");
@@ -0,0 +1,393 @@
+package name.abuchen.portfolio.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import name.abuchen.portfolio.Messages;
+
+/**
+ * Append-only journal of the changes made to a client since its binary file
+ * has been written.
+ * <p/>
+ * Instead of rewriting the file on every save, the changes are appended as
+ * records to a sidecar file (file name + ".journal") and forced to disk. When
+ * loading the file, the records are replayed. The journal starts with a
+ * signature and the generation of the file it belongs to. Writing the file
+ * starts a new generation, hence a journal left behind by an earlier
+ * generation is ignored.
+ * <p/>
+ * The model does not publish change events. Therefore the changes are
+ * determined when saving:
+ * <ul>
+ * <li>{@link #DATA}: the client without quotes if it differs from the
+ * persisted state</li>
+ * <li>{@link #QUOTES}: the historical quotes of each security starting with
+ * the first changed day and the changed latest quotes</li>
+ * </ul>
+ * Each record consists of the type, the length of the payload, the payload,
+ * and a CRC32 checksum. Replaying stops at the first incomplete or corrupt
+ * record, for example if the application crashed while appending. A record
+ * with a valid checksum which cannot be applied fails loading the file.
+ */
+/* package */class ClientJournal
+{
+    private static final byte[] SIGNATURE = new byte[] { 'P', 'P', 'J', 'O', 'U', 'R', 'N', 'L' };
+    private static final int HEADER_LENGTH = SIGNATURE.length + Long.BYTES;
+
+    private static final int DATA = 1;
+    private static final int QUOTES = 2;
+
+    /**
+     * Once the journal would exceed this share of the size of the file, the
+     * file is written anew (and the journal removed).
+     */
+    private static final int MAX_PERCENTAGE = 50;
+
+    /**
+     * State of a security captured before it is written. The quotes are
+     * updated by other threads while saving, hence a series is marked as
+     * persisted only if it has not been changed since (see
+     * {@link PriceSeries#markPersisted(int)}).
+     */
+    private static final class State
+    {
+        private final String uuid;
+        private final PriceSeries prices;
+        private final int changeCount;
+        private final int firstChangedDay;
+        private final LatestSecurityPrice latest;
+
+        private State(Security security)
+        {
+            this.uuid = security.getUUID();
+            this.prices = security.getPriceSeries();
+
+            // retrieve the count first: a change in between prevents the
+            // series from being marked as persisted
+            this.changeCount = prices.getChangeCount();
+            this.firstChangedDay = prices.getFirstChangedDay();
+
+            LatestSecurityPrice l = security.getLatest();
+            if (l != null)
+            {
+                this.latest = new LatestSecurityPrice(l.getTime(), l.getValue());
+                this.latest.setHigh(l.getHigh());
+                this.latest.setLow(l.getLow());
+                this.latest.setVolume(l.getVolume());
+                this.latest.setPreviousClose(l.getPreviousClose());
+            }
+            else
+            {
+                this.latest = null;
+            }
+        }
+    }
+
+    /**
+     * Changes collected (and encoded as records) but not yet appended to the
+     * journal.
+     */
+    /* package */static final class Changes
+    {
+        private final Map<Security, State> states;
+        private final byte[] digest;
+        private final byte[] records;
+
+        private Changes(Map<Security, State> states, byte[] digest, byte[] records)
+        {
+            this.states = states;
+            this.digest = digest;
+            this.records = records;
+        }
+    }
+
+    private final long generation;
+
+    private File file;
+    private long fileLength;
+    private long journalLength;
+    private byte[] digest;
+    private Map<Security, State> securities = new IdentityHashMap<>();
+
+    /* package */ClientJournal(long generation)
+    {
+        this.generation = generation;
+    }
+
+    /* package */long getGeneration()
+    {
+        return generation;
+    }
+
+    /* package */static File getJournalFile(File file)
+    {
+        return new File(file.getPath() + ".journal"); //$NON-NLS-1$
+    }
+
+    /**
+     * Writes the client including quotes as file of this generation. The
+     * returned changes are passed to {@link #written} once the file has been
+     * replaced.
+     */
+    /* package */Changes write(Client client, OutputStream output) throws IOException
+    {
+        Map<Security, State> states = capture(client);
+        byte[] dataDigest = ClientBinaryFormat.write(client, output, true);
+        return new Changes(states, dataDigest, new byte[0]);
+    }
+
+    /**
+     * Called after the file written by {@link #write} has replaced the file.
+     * The caller removes the journal of the previous generation.
+     */
+    /* package */void written(Changes changes, File file, long fileLength)
+    {
+        journalLength = 0;
+        markPersisted(changes.states, file, fileLength, changes.digest);
+    }
+
+    /**
+     * Replays the journal of the file onto the client read from the file.
+     *
+     * @return the client including all changes recorded in the journal
+     */
+    /* package */Client replay(Client client, File file) throws IOException
+    {
+        Client answer = client;
+        journalLength = 0;
+
+        File journalFile = getJournalFile(file);
+        byte[] bytes = journalFile.exists() ? Files.readAllBytes(journalFile.toPath()) : new byte[0];
+
+        // a journal of another generation is overwritten with the next append
+        if (bytes.length >= HEADER_LENGTH && Arrays.equals(Arrays.copyOf(bytes, SIGNATURE.length), SIGNATURE)
+                        && ByteBuffer.wrap(bytes, SIGNATURE.length, Long.BYTES).getLong() == generation)
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            buffer.position(HEADER_LENGTH);
+            journalLength = HEADER_LENGTH;
+
+            while (buffer.remaining() >= 1 + Integer.BYTES)
+            {
+                int type = buffer.get();
+                int length = buffer.getInt();
+                if (length < 0 || buffer.remaining() < length + Integer.BYTES)
+                    break;
+
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+
+                if (checksum(type, payload) != buffer.getInt())
+                    break;
+
+                // a complete record which cannot be applied is not skipped as
+                // the following records (and file) build on it
+                try
+                {
+                    answer = apply(answer, type, payload);
+                }
+                catch (IOException e)
+                {
+                    throw new IOException(MessageFormat.format(Messages.MsgJournalCorrupted, journalFile.getName()),
+                                    e);
+                }
+
+                journalLength = buffer.position();
+            }
+        }
+
+        byte[] dataDigest = ClientBinaryFormat.write(answer, new ByteArrayOutputStream(), false);
+        markPersisted(capture(answer), file, file.length(), dataDigest);
+        return answer;
+    }
+
+    private Client apply(Client client, int type, byte[] payload) throws IOException
+    {
+        switch (type)
+        {
+            case DATA:
+                Client next = ClientFactory.load(new ByteArrayInputStream(payload));
+
+                // the record does not contain quotes
+                Map<String, Security> uuid2security = new HashMap<>();
+                client.getSecurities().forEach(s -> uuid2security.put(s.getUUID(), s));
+                for (Security security : next.getSecurities())
+                {
+                    Security previous = uuid2security.get(security.getUUID());
+                    if (previous != null)
+                    {
+                        security.setPriceSeries(previous.getPriceSeries());
+                        security.setLatest(previous.getLatest());
+                    }
+                }
+
+                next.setJournal(this);
+                return next;
+            case QUOTES:
+                ClientBinaryFormat.readQuotes(payload, client);
+                return client;
+            default:
+                // records unknown to this version are skipped
+                return client;
+        }
+    }
+
+    /**
+     * Appends the changes made since the client has been written or the last
+     * append to the journal.
+     *
+     * @return false if the file must be written instead, for example because
+     *         the journal grew too large
+     */
+    /* package */boolean append(Client client, File file) throws IOException
+    {
+        return append(client, file, collect(client));
+    }
+
+    /**
+     * Collects the changes made since the client has been written or the
+     * last append.
+     */
+    /* package */Changes collect(Client client) throws IOException
+    {
+        Map<Security, State> states = capture(client);
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        byte[] dataDigest = ClientBinaryFormat.write(client, data, false);
+        if (!Arrays.equals(digest, dataDigest))
+            writeRecord(records, DATA, data.toByteArray());
+
+        Map<Security, Integer> changedPrices = new LinkedHashMap<>();
+        List<Security> changedLatest = new ArrayList<>();
+        for (Map.Entry<Security, State> entry : states.entrySet())
+        {
+            Security security = entry.getKey();
+            State current = entry.getValue();
+            State state = securities.get(security);
+            boolean isKnown = state != null && state.uuid.equals(current.uuid);
+
+            // securities unknown to the journal are replayed without quotes
+            if (!isKnown && !current.prices.isEmpty())
+                changedPrices.put(security, Integer.MIN_VALUE);
+            else if (isKnown && current.firstChangedDay != Integer.MAX_VALUE)
+                changedPrices.put(security, current.firstChangedDay);
+
+            if (!Objects.equals(isKnown ? state.latest : null, current.latest))
+                changedLatest.add(security);
+        }
+
+        if (!changedPrices.isEmpty() || !changedLatest.isEmpty())
+            writeRecord(records, QUOTES, ClientBinaryFormat.writeQuotes(changedPrices, changedLatest));
+
+        return new Changes(states, dataDigest, records.toByteArray());
+    }
+
+    /**
+     * Appends the collected changes to the journal.
+     *
+     * @see #append(Client, File)
+     */
+    /* package */boolean append(Client client, File file, Changes changes) throws IOException
+    {
+        if (client.getJournal() != this || !file.equals(this.file) || file.length() != fileLength)
+            return false;
+
+        byte[] records = changes.records;
+        if (records.length == 0)
+        {
+            markPersisted(changes.states, file, fileLength, changes.digest);
+            return true;
+        }
+
+        long length = Math.max(journalLength, HEADER_LENGTH) + records.length;
+        if (length * 100 > fileLength * MAX_PERCENTAGE)
+            return false;
+
+        try (FileChannel channel = FileChannel.open(getJournalFile(file).toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE))
+        {
+            // the journal has been removed or replaced meanwhile
+            if (channel.size() < journalLength)
+                return false;
+
+            // remove an incomplete record of an earlier append
+            channel.truncate(journalLength);
+            channel.position(journalLength);
+
+            if (journalLength == 0)
+            {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.put(SIGNATURE).putLong(generation).flip();
+                while (header.hasRemaining())
+                    channel.write(header);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(records);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+
+            channel.force(true);
+            journalLength = channel.position();
+        }
+
+        markPersisted(changes.states, file, fileLength, changes.digest);
+        return true;
+    }
+
+    private static Map<Security, State> capture(Client client)
+    {
+        Map<Security, State> states = new LinkedHashMap<>();
+        for (Security security : client.getSecurities())
+            states.put(security, new State(security));
+        return states;
+    }
+
+    private void markPersisted(Map<Security, State> states, File file, long fileLength, byte[] digest)
+    {
+        this.file = file;
+        this.fileLength = fileLength;
+        this.digest = digest;
+
+        securities = new IdentityHashMap<>(states);
+        for (State state : states.values())
+            state.prices.markPersisted(state.changeCount);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream records, int type, byte[] payload) throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(records);
+        out.writeByte(type);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt(checksum(type, payload));
+        out.flush();
+    }
+
+    private static int checksum(int type, byte[] payload)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
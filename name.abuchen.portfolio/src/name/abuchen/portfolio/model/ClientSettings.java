@@ -19,6 +19,13 @@ public class ClientSettings
         doPostLoadInitialization();
     }
 
+    /* package */ClientSettings(List<Bookmark> bookmarks, List<AttributeType> attributeTypes)
+    {
+        this.bookmarks = bookmarks;
+        this.attributeTypes = attributeTypes;
+        doPostLoadInitialization();
+    }
+
     public void doPostLoadInitialization()
     {
         if (bookmarks == null)
@@ -0,0 +1,1235 @@
+package name.abuchen.portfolio.model;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import name.abuchen.portfolio.model.Classification.Assignment;
+import name.abuchen.portfolio.money.Money;
+
+/**
+ * Reads a client from the XML written by XStream for the current version of
+ * the file format (see {@link ClientFactory}). Instead of creating the objects
+ * via reflection, the reader streams over the elements and builds the model
+ * objects directly.
+ * <p/>
+ * XStream writes an object once and afterwards refers to it by the relative
+ * path of the first occurrence, e.g. <code>&lt;security
+ * reference="../../../../securities/security[2]"/&gt;</code>. Therefore the
+ * reader keeps track of the path of the current element and remembers every
+ * object by the path it was read from.
+ */
+@SuppressWarnings("nls")
+/* package */class ClientXmlReader
+{
+    private static final String REFERENCE = "reference";
+    private static final String CLASS = "class";
+
+    /**
+     * Element currently read. The path of the element is only built if the
+     * element is registered or refers to another element.
+     */
+    private static final class Element
+    {
+        private final Element parent;
+        private final String name;
+        private final int index;
+
+        private Map<String, Integer> children;
+        private String path;
+
+        private Element(Element parent, String name)
+        {
+            this.parent = parent;
+            this.name = name;
+            this.index = parent != null ? parent.count(name) : 1;
+        }
+
+        private int count(String child)
+        {
+            if (children == null)
+                children = new HashMap<>();
+            return children.merge(child, 1, Integer::sum);
+        }
+
+        private String path()
+        {
+            if (path == null)
+            {
+                StringBuilder buffer = new StringBuilder();
+                if (parent != null)
+                    buffer.append(parent.path());
+                buffer.append('/').append(name);
+                if (index > 1)
+                    buffer.append('[').append(index).append(']');
+                path = buffer.toString();
+            }
+            return path;
+        }
+    }
+
+    private final XMLStreamReader reader;
+    private final Map<String, Object> objects = new HashMap<>();
+
+    private Element element;
+
+    private ClientXmlReader(XMLStreamReader reader)
+    {
+        this.reader = reader;
+    }
+
+    public static Client read(Reader input) throws XMLStreamException
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        XMLStreamReader reader = factory.createXMLStreamReader(input);
+
+        try
+        {
+            return new ClientXmlReader(reader).readClient();
+        }
+        catch (RuntimeException | ClassNotFoundException e)
+        {
+            throw new XMLStreamException(e.getMessage(), reader.getLocation(), e);
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    private Client readClient() throws XMLStreamException, ClassNotFoundException
+    {
+        reader.nextTag();
+        element = new Element(null, reader.getLocalName());
+        if (!"client".equals(element.name))
+            throw unexpected();
+
+        Client client = register(new Client());
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "version":
+                    client.setVersion(Integer.parseInt(text()));
+                    break;
+                case "baseCurrency":
+                    client.setBaseCurrency(text());
+                    break;
+                case "securities":
+                    while (nextElement("security"))
+                        client.addSecurity(readSecurity());
+                    break;
+                case "watchlists":
+                    while (nextElement("watchlist"))
+                        client.getWatchlists().add(readWatchlist());
+                    break;
+                case "consumerPriceIndeces":
+                    while (nextElement("cpi"))
+                        client.addConsumerPriceIndex(readConsumerPriceIndex());
+                    break;
+                case "accounts":
+                    while (nextElement("account"))
+                        client.addAccount(readAccount());
+                    break;
+                case "portfolios":
+                    while (nextElement("portfolio"))
+                        client.addPortfolio(readPortfolio());
+                    break;
+                case "plans":
+                    while (nextElement("investment-plan"))
+                        client.addPlan(readInvestmentPlan());
+                    break;
+                case "taxonomies":
+                    while (nextElement("taxonomy"))
+                        client.addTaxonomy(readTaxonomy());
+                    break;
+                case "properties":
+                    while (nextElement("entry"))
+                    {
+                        String key = readString();
+                        client.setProperty(key, readString());
+                        end();
+                    }
+                    break;
+                case "settings":
+                    client.setSettings(readSettings());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return client;
+    }
+
+    private Security readSecurity() throws XMLStreamException
+    {
+        Security security = reference(Security.class);
+        if (security != null)
+            return security;
+
+        security = register(new Security());
+        security.setCurrencyCode(null); // not written if not set
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "uuid":
+                    security.setUUID(text());
+                    break;
+                case "name":
+                    security.setName(text());
+                    break;
+                case "currencyCode":
+                    security.setCurrencyCode(text());
+                    break;
+                case "note":
+                    security.setNote(text());
+                    break;
+                case "isin":
+                    security.setIsin(text());
+                    break;
+                case "tickerSymbol":
+                    security.setTickerSymbol(text());
+                    break;
+                case "wkn":
+                    security.setWkn(text());
+                    break;
+                case "feed":
+                    security.setFeed(text());
+                    break;
+                case "feedURL":
+                    security.setFeedURL(text());
+                    break;
+                case "prices":
+                    readPrices(security.getPriceSeries());
+                    break;
+                case "latestFeed":
+                    security.setLatestFeed(text());
+                    break;
+                case "latestFeedURL":
+                    security.setLatestFeedURL(text());
+                    break;
+                case "latest":
+                    security.setLatest(readLatestSecurityPrice());
+                    break;
+                case "attributes":
+                    security.setAttributes(readAttributes());
+                    break;
+                case "events":
+                    List<SecurityEvent> events = security.getEvents();
+                    while (nextElement("event"))
+                        events.add(readSecurityEvent());
+                    break;
+                case "isRetired":
+                    security.setRetired(Boolean.parseBoolean(text()));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return security;
+    }
+
+    /**
+     * Reads the historical quotes. As the quotes are by far the most elements
+     * of a file, they are read without keeping track of the elements.
+     */
+    private void readPrices(PriceSeries prices) throws XMLStreamException
+    {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT)
+        {
+            if (!"price".equals(reader.getLocalName()))
+                throw new XMLStreamException(reader.getLocalName(), reader.getLocation());
+
+            LocalDate date = parseDate(reader.getAttributeValue(null, "t"));
+            prices.put((int) date.toEpochDay(), Long.parseLong(reader.getAttributeValue(null, "v")));
+
+            if (reader.nextTag() != XMLStreamConstants.END_ELEMENT)
+                throw new XMLStreamException(reader.getLocalName(), reader.getLocation());
+        }
+
+        prices.trimToSize();
+        element = element.parent;
+    }
+
+    private LatestSecurityPrice readLatestSecurityPrice() throws XMLStreamException
+    {
+        LatestSecurityPrice latest = reference(LatestSecurityPrice.class);
+        if (latest != null)
+            return latest;
+
+        latest = register(new LatestSecurityPrice());
+
+        String time = reader.getAttributeValue(null, "t");
+        if (time != null)
+            latest.setTime(parseDate(time));
+        String value = reader.getAttributeValue(null, "v");
+        if (value != null)
+            latest.setValue(Long.parseLong(value));
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "high":
+                    latest.setHigh(Long.parseLong(text()));
+                    break;
+                case "low":
+                    latest.setLow(Long.parseLong(text()));
+                    break;
+                case "volume":
+                    latest.setVolume(Integer.parseInt(text()));
+                    break;
+                case "previousClose":
+                    latest.setPreviousClose(Long.parseLong(text()));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return latest;
+    }
+
+    private Attributes readAttributes() throws XMLStreamException
+    {
+        Attributes attributes = reference(Attributes.class);
+        if (attributes != null)
+            return attributes;
+
+        attributes = register(new Attributes());
+
+        while (nextElement("map"))
+        {
+            Map<String, Object> map = attributes.getMap();
+
+            while (nextElement("entry"))
+            {
+                String key = readString();
+
+                if (!nextElement())
+                    throw unexpected();
+
+                switch (element.name)
+                {
+                    case "null":
+                        map.put(key, null);
+                        end();
+                        break;
+                    case "string":
+                        map.put(key, text());
+                        break;
+                    case "long":
+                        map.put(key, Long.valueOf(text()));
+                        break;
+                    case "double":
+                        map.put(key, Double.valueOf(text()));
+                        break;
+                    case "java.time.LocalDate":
+                        map.put(key, readDate());
+                        break;
+                    default:
+                        throw unexpected();
+                }
+
+                end();
+            }
+        }
+
+        return attributes;
+    }
+
+    private SecurityEvent readSecurityEvent() throws XMLStreamException
+    {
+        SecurityEvent event = reference(SecurityEvent.class);
+        if (event != null)
+            return event;
+
+        Element at = element;
+
+        LocalDate date = null;
+        SecurityEvent.Type type = null;
+        String details = null;
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "date":
+                    date = readDate();
+                    break;
+                case "type":
+                    type = SecurityEvent.Type.valueOf(text());
+                    break;
+                case "details":
+                    details = text();
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return register(at, new SecurityEvent(date, type, details));
+    }
+
+    private Watchlist readWatchlist() throws XMLStreamException
+    {
+        Watchlist watchlist = reference(Watchlist.class);
+        if (watchlist != null)
+            return watchlist;
+
+        watchlist = register(new Watchlist());
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "name":
+                    watchlist.setName(text());
+                    break;
+                case "securities":
+                    while (nextElement("security"))
+                        watchlist.addSecurity(readSecurity());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return watchlist;
+    }
+
+    private ConsumerPriceIndex readConsumerPriceIndex() throws XMLStreamException
+    {
+        ConsumerPriceIndex index = reference(ConsumerPriceIndex.class);
+        if (index != null)
+            return index;
+
+        index = register(new ConsumerPriceIndex());
+        index.setYear(Integer.parseInt(reader.getAttributeValue(null, "y")));
+        index.setMonth(Integer.parseInt(reader.getAttributeValue(null, "m")));
+        index.setIndex(Integer.parseInt(reader.getAttributeValue(null, "i")));
+        end();
+
+        return index;
+    }
+
+    private Account readAccount() throws XMLStreamException
+    {
+        Account account = reference(Account.class);
+        if (account != null)
+            return account;
+
+        account = register(new Account());
+        account.setCurrencyCode(null); // not written if not set
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "uuid":
+                    account.setUUID(text());
+                    break;
+                case "name":
+                    account.setName(text());
+                    break;
+                case "currencyCode":
+                    account.setCurrencyCode(text());
+                    break;
+                case "note":
+                    account.setNote(text());
+                    break;
+                case "isRetired":
+                    account.setRetired(Boolean.parseBoolean(text()));
+                    break;
+                case "transactions":
+                    while (nextElement("account-transaction"))
+                        account.addTransaction(readAccountTransaction());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return account;
+    }
+
+    private Portfolio readPortfolio() throws XMLStreamException
+    {
+        Portfolio portfolio = reference(Portfolio.class);
+        if (portfolio != null)
+            return portfolio;
+
+        portfolio = register(new Portfolio());
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "uuid":
+                    portfolio.setUUID(text());
+                    break;
+                case "name":
+                    portfolio.setName(text());
+                    break;
+                case "note":
+                    portfolio.setNote(text());
+                    break;
+                case "isRetired":
+                    portfolio.setRetired(Boolean.parseBoolean(text()));
+                    break;
+                case "referenceAccount":
+                    portfolio.setReferenceAccount(readAccount());
+                    break;
+                case "transactions":
+                    while (nextElement("portfolio-transaction"))
+                        portfolio.addTransaction(readPortfolioTransaction());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return portfolio;
+    }
+
+    private AccountTransaction readAccountTransaction() throws XMLStreamException
+    {
+        AccountTransaction transaction = reference(AccountTransaction.class);
+        if (transaction != null)
+            return transaction;
+
+        transaction = register(new AccountTransaction());
+
+        while (nextElement())
+        {
+            if ("type".equals(element.name))
+                transaction.setType(AccountTransaction.Type.valueOf(text()));
+            else
+                readTransactionField(transaction);
+        }
+
+        return transaction;
+    }
+
+    private PortfolioTransaction readPortfolioTransaction() throws XMLStreamException
+    {
+        PortfolioTransaction transaction = reference(PortfolioTransaction.class);
+        if (transaction != null)
+            return transaction;
+
+        transaction = register(new PortfolioTransaction());
+
+        while (nextElement())
+        {
+            if ("type".equals(element.name))
+                transaction.setType(PortfolioTransaction.Type.valueOf(text()));
+            else
+                readTransactionField(transaction);
+        }
+
+        return transaction;
+    }
+
+    private void readTransactionField(Transaction transaction) throws XMLStreamException
+    {
+        switch (element.name)
+        {
+            case "date":
+                transaction.setDate(readDate());
+                break;
+            case "currencyCode":
+                transaction.setCurrencyCode(text());
+                break;
+            case "amount":
+                transaction.setAmount(Long.parseLong(text()));
+                break;
+            case "security":
+                transaction.setSecurity(readSecurity());
+                break;
+            case "crossEntry":
+                transaction.setCrossEntry(readCrossEntry());
+                break;
+            case "shares":
+                transaction.setShares(Long.parseLong(text()));
+                break;
+            case "note":
+                transaction.setNote(text());
+                break;
+            case "units":
+                List<Transaction.Unit> units = new ArrayList<>();
+                while (nextElement("unit"))
+                    units.add(readUnit());
+                // add units without checking the currency (as XStream does)
+                transaction.addUnits(units.stream());
+                break;
+            default:
+                throw unexpected();
+        }
+    }
+
+    private Transaction.Unit readUnit() throws XMLStreamException
+    {
+        Transaction.Unit unit = reference(Transaction.Unit.class);
+        if (unit != null)
+            return unit;
+
+        Element at = element;
+
+        Transaction.Unit.Type type = Transaction.Unit.Type.valueOf(reader.getAttributeValue(null, "type"));
+        Money amount = null;
+        Money forex = null;
+        BigDecimal exchangeRate = null;
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "amount":
+                    amount = readMoney();
+                    break;
+                case "forex":
+                    forex = readMoney();
+                    break;
+                case "exchangeRate":
+                    exchangeRate = new BigDecimal(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        if (forex == null && exchangeRate == null)
+            unit = new Transaction.Unit(type, amount);
+        else
+            unit = new Transaction.Unit(type, amount, forex, exchangeRate, false);
+
+        return register(at, unit);
+    }
+
+    private Money readMoney() throws XMLStreamException
+    {
+        Money money = reference(Money.class);
+        if (money != null)
+            return money;
+
+        Element at = element;
+
+        money = Money.of(reader.getAttributeValue(null, "currency"),
+                        Long.parseLong(reader.getAttributeValue(null, "amount")));
+        end();
+
+        return register(at, money);
+    }
+
+    private CrossEntry readCrossEntry() throws XMLStreamException
+    {
+        CrossEntry entry = reference(CrossEntry.class);
+        if (entry != null)
+            return entry;
+
+        String type = reader.getAttributeValue(null, CLASS);
+        if ("buysell".equals(type))
+            return readBuySellEntry();
+        else if ("account-transfer".equals(type))
+            return readAccountTransferEntry();
+        else if ("portfolio-transfer".equals(type))
+            return readPortfolioTransferEntry();
+        else
+            throw unexpected();
+    }
+
+    private BuySellEntry readBuySellEntry() throws XMLStreamException
+    {
+        BuySellEntry entry = register(new BuySellEntry());
+        entry.setPortfolioTransaction(null);
+        entry.setAccountTransaction(null);
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "portfolio":
+                    entry.setPortfolio(readPortfolio());
+                    break;
+                case "portfolioTransaction":
+                    entry.setPortfolioTransaction(readPortfolioTransaction());
+                    break;
+                case "account":
+                    entry.setAccount(readAccount());
+                    break;
+                case "accountTransaction":
+                    entry.setAccountTransaction(readAccountTransaction());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return entry;
+    }
+
+    private AccountTransferEntry readAccountTransferEntry() throws XMLStreamException
+    {
+        AccountTransferEntry entry = register(new AccountTransferEntry());
+        entry.setSourceTransaction(null);
+        entry.setTargetTransaction(null);
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "accountFrom":
+                    entry.setSourceAccount(readAccount());
+                    break;
+                case "transactionFrom":
+                    entry.setSourceTransaction(readAccountTransaction());
+                    break;
+                case "accountTo":
+                    entry.setTargetAccount(readAccount());
+                    break;
+                case "transactionTo":
+                    entry.setTargetTransaction(readAccountTransaction());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return entry;
+    }
+
+    private PortfolioTransferEntry readPortfolioTransferEntry() throws XMLStreamException
+    {
+        PortfolioTransferEntry entry = register(new PortfolioTransferEntry());
+        entry.setSourceTransaction(null);
+        entry.setTargetTransaction(null);
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "portfolioFrom":
+                    entry.setSourcePortfolio(readPortfolio());
+                    break;
+                case "transactionFrom":
+                    entry.setSourceTransaction(readPortfolioTransaction());
+                    break;
+                case "portfolioTo":
+                    entry.setTargetPortfolio(readPortfolio());
+                    break;
+                case "transactionTo":
+                    entry.setTargetTransaction(readPortfolioTransaction());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return entry;
+    }
+
+    private InvestmentPlan readInvestmentPlan() throws XMLStreamException
+    {
+        InvestmentPlan plan = reference(InvestmentPlan.class);
+        if (plan != null)
+            return plan;
+
+        plan = register(new InvestmentPlan());
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "name":
+                    plan.setName(text());
+                    break;
+                case "note":
+                    plan.setNote(text());
+                    break;
+                case "security":
+                    plan.setSecurity(readSecurity());
+                    break;
+                case "portfolio":
+                    plan.setPortfolio(readPortfolio());
+                    break;
+                case "account":
+                    plan.setAccount(readAccount());
+                    break;
+                case "start":
+                    plan.setStart(readDate());
+                    break;
+                case "interval":
+                    plan.setInterval(Integer.parseInt(text()));
+                    break;
+                case "amount":
+                    plan.setAmount(Long.parseLong(text()));
+                    break;
+                case "fees":
+                    plan.setFees(Long.parseLong(text()));
+                    break;
+                case "transactions":
+                    List<PortfolioTransaction> transactions = plan.getTransactions();
+                    while (nextElement("portfolio-transaction"))
+                        transactions.add(readPortfolioTransaction());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return plan;
+    }
+
+    private Taxonomy readTaxonomy() throws XMLStreamException
+    {
+        Taxonomy taxonomy = reference(Taxonomy.class);
+        if (taxonomy != null)
+            return taxonomy;
+
+        taxonomy = register(new Taxonomy());
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "id":
+                    taxonomy.setId(text());
+                    break;
+                case "name":
+                    taxonomy.setName(text());
+                    break;
+                case "dimensions":
+                    taxonomy.setDimensions(readDimensions());
+                    break;
+                case "root":
+                    taxonomy.setRootNode(readClassification());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return taxonomy;
+    }
+
+    private List<String> readDimensions() throws XMLStreamException
+    {
+        String type = reader.getAttributeValue(null, CLASS);
+
+        // dimensions created from the taxonomy templates are fixed-size lists
+        boolean isFixedSize = "java.util.Arrays$ArrayList".equals(type);
+        if (isFixedSize && !nextElement("a"))
+            throw unexpected();
+        else if (!isFixedSize && type != null)
+            throw unexpected();
+
+        List<String> dimensions = new ArrayList<>();
+        while (nextElement("string"))
+            dimensions.add(text());
+
+        if (!isFixedSize)
+            return dimensions;
+
+        end();
+        return Arrays.asList(dimensions.toArray(new String[dimensions.size()]));
+    }
+
+    private Classification readClassification() throws XMLStreamException
+    {
+        Classification classification = reference(Classification.class);
+        if (classification != null)
+            return classification;
+
+        classification = register(new Classification());
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "id":
+                    classification.setId(text());
+                    break;
+                case "name":
+                    classification.setName(text());
+                    break;
+                case "description":
+                    classification.setNote(text());
+                    break;
+                case "color":
+                    classification.setColor(text());
+                    break;
+                case "parent":
+                    classification.setParent(readClassification());
+                    break;
+                case "children":
+                    while (nextElement("classification"))
+                        classification.addChild(readClassification());
+                    break;
+                case "assignments":
+                    while (nextElement("assignment"))
+                        classification.addAssignment(readAssignment());
+                    break;
+                case "weight":
+                    classification.setWeight(Integer.parseInt(text()));
+                    break;
+                case "rank":
+                    classification.setRank(Integer.parseInt(text()));
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return classification;
+    }
+
+    private Assignment readAssignment() throws XMLStreamException
+    {
+        Assignment assignment = reference(Assignment.class);
+        if (assignment != null)
+            return assignment;
+
+        Element at = element;
+
+        InvestmentVehicle vehicle = null;
+        int weight = 0;
+        int rank = 0;
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "investmentVehicle":
+                    vehicle = readInvestmentVehicle();
+                    break;
+                case "weight":
+                    weight = Integer.parseInt(text());
+                    break;
+                case "rank":
+                    rank = Integer.parseInt(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        assignment = new Assignment(vehicle);
+        assignment.setWeight(weight);
+        assignment.setRank(rank);
+
+        return register(at, assignment);
+    }
+
+    private InvestmentVehicle readInvestmentVehicle() throws XMLStreamException
+    {
+        String type = reader.getAttributeValue(null, CLASS);
+        if ("security".equals(type))
+            return readSecurity();
+        else if ("account".equals(type))
+            return readAccount();
+        else
+            throw unexpected();
+    }
+
+    private ClientSettings readSettings() throws XMLStreamException, ClassNotFoundException
+    {
+        Element at = element;
+
+        List<Bookmark> bookmarks = null;
+        List<AttributeType> attributeTypes = null;
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "bookmarks":
+                    bookmarks = new ArrayList<>();
+                    while (nextElement("bookmark"))
+                        bookmarks.add(readBookmark());
+                    break;
+                case "attributeTypes":
+                    attributeTypes = new ArrayList<>();
+                    while (nextElement("attribute-type"))
+                        attributeTypes.add(readAttributeType());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return register(at, new ClientSettings(bookmarks, attributeTypes));
+    }
+
+    private Bookmark readBookmark() throws XMLStreamException
+    {
+        Element at = element;
+
+        String label = null;
+        String pattern = null;
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "label":
+                    label = text();
+                    break;
+                case "pattern":
+                    pattern = text();
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        return register(at, new Bookmark(label, pattern));
+    }
+
+    @SuppressWarnings("unchecked")
+    private AttributeType readAttributeType() throws XMLStreamException, ClassNotFoundException
+    {
+        Element at = element;
+
+        String id = null;
+        String name = null;
+        String columnLabel = null;
+        Class<?> target = null;
+        Class<?> type = null;
+        Class<?> converter = null;
+
+        while (nextElement())
+        {
+            switch (element.name)
+            {
+                case "id":
+                    id = text();
+                    break;
+                case "name":
+                    name = text();
+                    break;
+                case "columnLabel":
+                    columnLabel = text();
+                    break;
+                case "target":
+                    target = loadClass(text());
+                    break;
+                case "type":
+                    type = loadClass(text());
+                    break;
+                case "converterClass":
+                    converter = loadClass(text());
+                    break;
+                default:
+                    throw unexpected();
+            }
+        }
+
+        AttributeType attributeType = new AttributeType(id);
+        attributeType.setName(name);
+        attributeType.setColumnLabel(columnLabel);
+        attributeType.setTarget((Class<? extends Attributable>) target);
+        attributeType.setType(type);
+        if (converter != null)
+            attributeType.setConverter(converter.asSubclass(AttributeType.Converter.class));
+
+        return register(at, attributeType);
+    }
+
+    private Class<?> loadClass(String name) throws ClassNotFoundException
+    {
+        return Class.forName(name, false, ClientXmlReader.class.getClassLoader());
+    }
+
+    private LocalDate readDate() throws XMLStreamException
+    {
+        LocalDate date = reference(LocalDate.class);
+        if (date != null)
+            return date;
+
+        Element at = element;
+        return register(at, parseDate(text()));
+    }
+
+    /**
+     * Reads a string which XStream writes as element of its own, for example
+     * keys and values of maps.
+     */
+    private String readString() throws XMLStreamException
+    {
+        if (!nextElement())
+            throw unexpected();
+
+        if ("null".equals(element.name))
+        {
+            end();
+            return null;
+        }
+        else if ("string".equals(element.name))
+        {
+            return text();
+        }
+        else
+        {
+            throw unexpected();
+        }
+    }
+
+    /* package */static LocalDate parseDate(String value)
+    {
+        // fast path for the ISO format (yyyy-MM-dd) written by XStream
+        if (value.length() == 10 && value.charAt(4) == '-' && value.charAt(7) == '-')
+            return LocalDate.of(parseDigits(value, 0, 4), parseDigits(value, 5, 7), parseDigits(value, 8, 10));
+        else
+            return LocalDate.parse(value);
+    }
+
+    private static int parseDigits(String value, int start, int end)
+    {
+        int answer = 0;
+        for (int ii = start; ii < end; ii++)
+        {
+            int digit = value.charAt(ii) - '0';
+            if (digit < 0 || digit > 9)
+                throw new NumberFormatException(value);
+            answer = answer * 10 + digit;
+        }
+        return answer;
+    }
+
+    /**
+     * Moves to the next child element of the current element. Returns false
+     * (and moves up to the parent) if the current element has no more child
+     * elements.
+     */
+    private boolean nextElement() throws XMLStreamException
+    {
+        while (reader.hasNext())
+        {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT)
+            {
+                element = new Element(element, reader.getLocalName());
+                return true;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT)
+            {
+                element = element.parent;
+                return false;
+            }
+        }
+
+        throw new XMLStreamException(element.path(), reader.getLocation());
+    }
+
+    private boolean nextElement(String name) throws XMLStreamException
+    {
+        if (!nextElement())
+            return false;
+
+        if (!name.equals(element.name))
+            throw unexpected();
+
+        return true;
+    }
+
+    /**
+     * Reads the text of the current element and moves up to the parent.
+     */
+    private String text() throws XMLStreamException
+    {
+        String text = reader.getElementText();
+        element = element.parent;
+        return text;
+    }
+
+    /**
+     * Moves up to the parent of an element that has no child elements.
+     */
+    private void end() throws XMLStreamException
+    {
+        if (nextElement())
+            throw unexpected();
+    }
+
+    private <T> T register(T object)
+    {
+        return register(element, object);
+    }
+
+    private <T> T register(Element at, T object)
+    {
+        objects.put(at.path(), object);
+        return object;
+    }
+
+    /**
+     * Returns the object the current element refers to or null if the element
+     * is not a reference.
+     */
+    private <T> T reference(Class<T> type) throws XMLStreamException
+    {
+        String reference = reader.getAttributeValue(null, REFERENCE);
+        if (reference == null)
+            return null;
+
+        Object object = objects.get(resolve(reference));
+        if (!type.isInstance(object))
+            throw new XMLStreamException(MessageFormat.format("Invalid reference ''{0}'' at {1}", reference,
+                            element.path()), reader.getLocation());
+
+        end();
+        return type.cast(object);
+    }
+
+    private String resolve(String reference)
+    {
+        StringBuilder path = new StringBuilder(reference.startsWith("/") ? "" : element.path());
+
+        for (String step : reference.split("/"))
+        {
+            if (step.isEmpty() || ".".equals(step))
+                continue;
+
+            if ("..".equals(step))
+            {
+                int index = path.lastIndexOf("/");
+                if (index < 0)
+                    throw new IllegalArgumentException(reference);
+                path.setLength(index);
+            }
+            else
+            {
+                // the first element of a name is referred to without index
+                path.append('/').append(step.endsWith("[1]") ? step.substring(0, step.length() - 3) : step);
+            }
+        }
+
+        return path.toString();
+    }
+
+    private XMLStreamException unexpected()
+    {
+        return new XMLStreamException(MessageFormat.format("Unexpected element {0}", element.path()),
+                        reader.getLocation());
+    }
+}
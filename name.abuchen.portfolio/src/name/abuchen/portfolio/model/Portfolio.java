@@ -31,6 +31,11 @@ public class Portfolio implements Named, TransactionOwner<PortfolioTransaction>
         uuid = UUID.randomUUID().toString();
     }
 
+    /* package */void setUUID(String uuid)
+    {
+        this.uuid = uuid;
+    }
+
     @Override
     public String getName()
     {
@@ -37,16 +37,36 @@ public class PortfolioTransferEntry implements CrossEntry, Annotated
         return this.transactionTo;
     }
 
+    /* package */void setSourceTransaction(PortfolioTransaction transaction)
+    {
+        this.transactionFrom = transaction;
+    }
+
+    /* package */void setTargetTransaction(PortfolioTransaction transaction)
+    {
+        this.transactionTo = transaction;
+    }
+
     public void setSourcePortfolio(Portfolio portfolio)
     {
         this.portfolioFrom = portfolio;
     }
 
+    public Portfolio getSourcePortfolio()
+    {
+        return portfolioFrom;
+    }
+
     public void setTargetPortfolio(Portfolio portfolio)
     {
         this.portfolioTo = portfolio;
     }
 
+    public Portfolio getTargetPortfolio()
+    {
+        return portfolioTo;
+    }
+
     public void setDate(LocalDate date)
     {
         this.transactionFrom.setDate(date);
@@ -0,0 +1,77 @@
+package name.abuchen.portfolio.model;
+
+import java.time.LocalDate;
+
+/**
+ * Looks up the quote of a security for dates in ascending order. Instead of a
+ * binary search per date, the cursor moves forward through the historical
+ * quotes. The returned value is identical to
+ * {@link Security#getSecurityPrice(LocalDate)}.
+ * <p/>
+ * A cursor is created with {@link Security#priceCursor()} and reflects the
+ * quotes at that time. Cursors are not thread-safe.
+ */
+public final class PriceCursor
+{
+    private final PriceSeries prices;
+    private final int size;
+
+    /**
+     * Epoch day as of which the latest quote is used or
+     * {@link Long#MAX_VALUE} if the latest quote is outdated.
+     */
+    private final long latestDay;
+    private final long latestValue;
+
+    private long currentDay = Long.MIN_VALUE;
+    private int index = -1;
+
+    /* package */PriceCursor(PriceSeries prices, LatestSecurityPrice latest)
+    {
+        this.prices = prices;
+        this.size = prices.size();
+
+        // see Security#getSecurityPrice: the latest quote is used only if
+        // there are no more up-to-date historical quotes
+        if (latest != null && (size == 0 || latest.getTime().toEpochDay() >= prices.getEpochDay(size - 1)))
+        {
+            this.latestDay = size == 0 ? Long.MIN_VALUE : latest.getTime().toEpochDay();
+            this.latestValue = latest.getValue();
+        }
+        else
+        {
+            this.latestDay = Long.MAX_VALUE;
+            this.latestValue = 0;
+        }
+    }
+
+    /**
+     * Returns the value of the quote valid at the given date. Dates are
+     * expected in ascending order; moving backwards falls back to a binary
+     * search.
+     */
+    public long advanceTo(LocalDate date)
+    {
+        long day = date.toEpochDay();
+
+        if (day >= latestDay)
+            return latestValue;
+
+        if (size == 0)
+            return 0;
+
+        if (day < currentDay)
+        {
+            index = prices.floorIndex((int) day);
+        }
+        else
+        {
+            while (index + 1 < size && prices.getEpochDay(index + 1) <= day)
+                index++;
+        }
+        currentDay = day;
+
+        // dates before the first historical quote use the first quote
+        return prices.getValue(Math.max(index, 0));
+    }
+}
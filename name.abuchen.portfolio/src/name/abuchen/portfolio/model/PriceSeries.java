@@ -0,0 +1,392 @@
+package name.abuchen.portfolio.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/**
+ * Historical quotes of a security stored in two primitive arrays (the epoch
+ * day of the date and the value), sorted by date. Compared to a list of
+ * {@link SecurityPrice} objects this avoids one object for the price and one
+ * for the date per quote. {@link SecurityPrice} objects are only created when
+ * the quotes are accessed as a list, for example, by the UI.
+ * <p/>
+ * When reading the binary file format, the quotes are decoded only upon first
+ * access of the series (see {@link ClientBinaryFormat}).
+ */
+/* package */final class PriceSeries
+{
+    private static final int[] EMPTY_DAYS = new int[0];
+    private static final long[] EMPTY_VALUES = new long[0];
+
+    private int[] epochDays = EMPTY_DAYS;
+    private long[] values = EMPTY_VALUES;
+    private int size = 0;
+
+    private volatile Supplier<PriceSeries> loader;
+
+    // first day changed since the series was persisted and the number of
+    // changes (see ClientJournal). The quotes are updated by other threads
+    // while the client is saved, hence both are guarded by this.
+    private int firstChangedDay = Integer.MAX_VALUE;
+    private int changeCount = 0;
+
+    /* package */PriceSeries()
+    {}
+
+    /* package */PriceSeries copy()
+    {
+        PriceSeries answer = new PriceSeries();
+
+        // the loader decodes the quotes anew for every series
+        Supplier<PriceSeries> l = loader;
+        if (l != null)
+        {
+            answer.loader = l;
+            return answer;
+        }
+
+        answer.epochDays = Arrays.copyOf(epochDays, size);
+        answer.values = Arrays.copyOf(values, size);
+        answer.size = size;
+        return answer;
+    }
+
+    /**
+     * Sets the loader which decodes the quotes upon first access. The series
+     * must be empty.
+     */
+    /* package */void setLoader(Supplier<PriceSeries> loader)
+    {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the loader if the quotes have not been decoded yet.
+     */
+    /* package */Supplier<PriceSeries> getLoader()
+    {
+        return loader;
+    }
+
+    private void load()
+    {
+        if (loader != null)
+        {
+            synchronized (this)
+            {
+                Supplier<PriceSeries> l = loader;
+                if (l != null)
+                {
+                    PriceSeries decoded = l.get();
+                    epochDays = decoded.epochDays;
+                    values = decoded.values;
+                    size = decoded.size;
+                    loader = null;
+                }
+            }
+        }
+    }
+
+    public int size()
+    {
+        load();
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    public int getEpochDay(int index)
+    {
+        checkIndex(index);
+        return epochDays[index];
+    }
+
+    public LocalDate getDate(int index)
+    {
+        return LocalDate.ofEpochDay(getEpochDay(index));
+    }
+
+    public long getValue(int index)
+    {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public SecurityPrice get(int index)
+    {
+        return new SecurityPrice(getDate(index), getValue(index));
+    }
+
+    private void checkIndex(int index)
+    {
+        load();
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+    /**
+     * Returns the index of the quote at the given epoch day. If there is no
+     * quote at that day, returns (-(insertion point) - 1) as
+     * {@link Arrays#binarySearch(int[], int)} does.
+     */
+    public int binarySearch(int epochDay)
+    {
+        load();
+
+        // most lookups and all appends are at the end of the series
+        if (size > 0 && epochDays[size - 1] < epochDay)
+            return -(size + 1);
+
+        return Arrays.binarySearch(epochDays, 0, size, epochDay);
+    }
+
+    /**
+     * Returns the index of the last quote on or before the given epoch day or
+     * -1 if the first quote is after the epoch day.
+     */
+    public int floorIndex(int epochDay)
+    {
+        int index = binarySearch(epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Sets the value at the given date.
+     *
+     * @return true if the series was changed
+     */
+    /* package */synchronized boolean put(int epochDay, long value)
+    {
+        int index = binarySearch(epochDay);
+
+        if (index >= 0)
+        {
+            if (values[index] == value)
+                return false;
+
+            values[index] = value;
+            changed(epochDay);
+            return true;
+        }
+
+        insert(-index - 1, epochDay, value);
+        changed(epochDay);
+        return true;
+    }
+
+    private void insert(int index, int epochDay, long value)
+    {
+        if (size == epochDays.length)
+        {
+            int capacity = Math.max(16, size + (size >> 1));
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        if (index < size)
+        {
+            System.arraycopy(epochDays, index, epochDays, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+
+        epochDays[index] = epochDay;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Merges the given quotes into the series. The epoch days must be sorted
+     * in ascending order without duplicates. Quotes at existing dates replace
+     * the existing value.
+     *
+     * @return number of quotes added or replaced
+     */
+    /* package */synchronized int merge(int[] days, long[] newValues, int count)
+    {
+        if (count == 0)
+            return 0;
+
+        load();
+
+        // common case: quote feeds append new quotes at the end
+        if (size == 0 || epochDays[size - 1] < days[0])
+        {
+            epochDays = Arrays.copyOf(epochDays, size + count);
+            values = Arrays.copyOf(values, size + count);
+            System.arraycopy(days, 0, epochDays, size, count);
+            System.arraycopy(newValues, 0, values, size, count);
+            size += count;
+            changed(days[0]);
+            return count;
+        }
+
+        int[] mergedDays = new int[size + count];
+        long[] mergedValues = new long[size + count];
+
+        int ii = 0;
+        int jj = 0;
+        int kk = 0;
+        int changed = 0;
+
+        while (ii < size || jj < count)
+        {
+            if (jj == count || (ii < size && epochDays[ii] < days[jj]))
+            {
+                mergedDays[kk] = epochDays[ii];
+                mergedValues[kk++] = values[ii++];
+            }
+            else
+            {
+                if (ii == size || days[jj] < epochDays[ii] || values[ii++] != newValues[jj])
+                {
+                    // days are ascending, hence the first change is the
+                    // earliest
+                    if (changed++ == 0)
+                        changed(days[jj]);
+                }
+
+                mergedDays[kk] = days[jj];
+                mergedValues[kk++] = newValues[jj++];
+            }
+        }
+
+        epochDays = mergedDays;
+        values = mergedValues;
+        size = kk;
+        return changed;
+    }
+
+    /* package */synchronized void remove(int index)
+    {
+        checkIndex(index);
+        changed(epochDays[index]);
+
+        System.arraycopy(epochDays, index + 1, epochDays, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Removes all quotes on or after the given epoch day.
+     */
+    /* package */synchronized void removeFrom(int epochDay)
+    {
+        int index = binarySearch(epochDay);
+        if (index < 0)
+            index = -index - 1;
+
+        if (index < size)
+        {
+            changed(epochDays[index]);
+            size = index;
+        }
+    }
+
+    /* package */synchronized void clear()
+    {
+        changed(Integer.MIN_VALUE);
+        loader = null;
+        epochDays = EMPTY_DAYS;
+        values = EMPTY_VALUES;
+        size = 0;
+    }
+
+    private synchronized void changed(int epochDay)
+    {
+        if (epochDay < firstChangedDay)
+            firstChangedDay = epochDay;
+        changeCount++;
+    }
+
+    /**
+     * Returns the first epoch day changed since the series was persisted or
+     * {@link Integer#MAX_VALUE} if the series is unchanged.
+     */
+    /* package */synchronized int getFirstChangedDay()
+    {
+        return firstChangedDay;
+    }
+
+    /**
+     * Returns the number of changes which is compared by
+     * {@link #markPersisted(int)}. Must be retrieved before the quotes are
+     * written.
+     */
+    /* package */synchronized int getChangeCount()
+    {
+        return changeCount;
+    }
+
+    /**
+     * Marks the series as persisted unless it has been changed since the
+     * given change count has been retrieved.
+     */
+    /* package */synchronized void markPersisted(int expectedChangeCount)
+    {
+        if (changeCount == expectedChangeCount)
+            firstChangedDay = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Releases unused capacity, for example, after reading a file.
+     */
+    /* package */synchronized void trimToSize()
+    {
+        load();
+        if (size < epochDays.length)
+        {
+            epochDays = Arrays.copyOf(epochDays, size);
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Returns a copy of the quotes on or after the given epoch day. The
+     * modifications are synchronized, hence the copy is consistent even if
+     * the quotes are updated by another thread meanwhile.
+     */
+    /* package */synchronized PriceSeries copyFrom(int epochDay)
+    {
+        int index = binarySearch(epochDay);
+        if (index < 0)
+            index = -index - 1;
+
+        PriceSeries answer = new PriceSeries();
+        answer.epochDays = Arrays.copyOfRange(epochDays, index, size);
+        answer.values = Arrays.copyOfRange(values, index, size);
+        answer.size = size - index;
+        return answer;
+    }
+
+    /**
+     * Returns a read-only list view of the series. The {@link SecurityPrice}
+     * objects are created on access, i.e. modifying them does not change the
+     * series.
+     */
+    public List<SecurityPrice> asList()
+    {
+        return new ListView();
+    }
+
+    private final class ListView extends AbstractList<SecurityPrice> implements RandomAccess
+    {
+        @Override
+        public SecurityPrice get(int index)
+        {
+            return PriceSeries.this.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return PriceSeries.this.size();
+        }
+    }
+}
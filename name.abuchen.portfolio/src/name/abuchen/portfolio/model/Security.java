@@ -3,7 +3,6 @@ package name.abuchen.portfolio.model;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -41,7 +40,7 @@ public final class Security implements Attributable, InvestmentVehicle
     // feed and feedURL are used to update historical prices
     private String feed;
     private String feedURL;
-    private List<SecurityPrice> prices = new ArrayList<SecurityPrice>();
+    private PriceSeries prices = new PriceSeries();
 
     // latestFeed and latestFeedURL are used to update the latest (current)
     // quote. If null, the values from feed and feedURL are used instead.
@@ -94,6 +93,11 @@ public final class Security implements Attributable, InvestmentVehicle
         uuid = UUID.randomUUID().toString();
     }
 
+    /* package */void setUUID(String uuid)
+    {
+        this.uuid = uuid;
+    }
+
     @Override
     public String getName()
     {
@@ -219,9 +223,24 @@ public final class Security implements Attributable, InvestmentVehicle
         this.feedURL = feedURL;
     }
 
+    /**
+     * Returns a read-only view of the historical quotes. The
+     * {@link SecurityPrice} objects are created on access, modifications must
+     * go through {@link #addPrice} and {@link #removePrice}.
+     */
     public List<SecurityPrice> getPrices()
     {
-        return Collections.unmodifiableList(prices);
+        return prices.asList();
+    }
+
+    /* package */PriceSeries getPriceSeries()
+    {
+        return prices;
+    }
+
+    /* package */void setPriceSeries(PriceSeries prices)
+    {
+        this.prices = prices;
     }
 
     /**
@@ -233,33 +252,56 @@ public final class Security implements Attributable, InvestmentVehicle
     {
         Objects.requireNonNull(price);
 
-        int index = Collections.binarySearch(prices, price);
+        return prices.put((int) price.getTime().toEpochDay(), price.getValue());
+    }
 
-        if (index < 0)
+    /**
+     * Adds all given prices to the historical quotes. Instead of inserting the
+     * prices one by one, the prices are merged with the existing quotes in a
+     * single pass. If the list contains multiple prices for the same date, the
+     * last one wins (as if added one by one).
+     * 
+     * @return number of historical quotes added or updated
+     */
+    public int mergePrices(List<? extends SecurityPrice> batch)
+    {
+        if (batch.isEmpty())
+            return 0;
+
+        List<? extends SecurityPrice> sorted = batch;
+        for (int ii = 1; ii < batch.size(); ii++)
         {
-            prices.add(~index, price);
-            return true;
+            if (batch.get(ii - 1).getTime().isAfter(batch.get(ii).getTime()))
+            {
+                List<SecurityPrice> copy = new ArrayList<>(batch);
+                copy.sort(new SecurityPrice.ByDate()); // stable
+                sorted = copy;
+                break;
+            }
         }
-        else
+
+        int[] days = new int[sorted.size()];
+        long[] values = new long[sorted.size()];
+        int count = 0;
+
+        for (SecurityPrice price : sorted)
         {
-            SecurityPrice replaced = prices.get(index);
+            int day = (int) price.getTime().toEpochDay();
+            if (count > 0 && days[count - 1] == day)
+                count--;
 
-            if (!replaced.equals(price))
-            {
-                // only replace if necessary -> UI might keep reference!
-                prices.set(index, price);
-                return true;
-            }
-            else
-            {
-                return false;
-            }
+            days[count] = day;
+            values[count++] = price.getValue();
         }
+
+        return prices.merge(days, values, count);
     }
 
     public void removePrice(SecurityPrice price)
     {
-        prices.remove(price);
+        int index = prices.binarySearch((int) price.getTime().toEpochDay());
+        if (index >= 0 && prices.getValue(index) == price.getValue())
+            prices.remove(index);
     }
 
     public void removeAllPrices()
@@ -295,15 +337,19 @@ public final class Security implements Attributable, InvestmentVehicle
         if (!lastHistoric.getTime().isAfter(requestedTime))
             return lastHistoric;
 
-        SecurityPrice p = new SecurityPrice(requestedTime, 0);
-        int index = Collections.binarySearch(prices, p);
+        int index = prices.floorIndex((int) requestedTime.toEpochDay());
 
-        if (index >= 0)
-            return prices.get(index);
-        else if (index == -1) // requested is date before first historic quote
-            return prices.get(0);
-        else
-            return prices.get(-index - 2);
+        // requested is date before first historic quote
+        return prices.get(Math.max(index, 0));
+    }
+
+    /**
+     * Returns a cursor to look up quotes for dates in ascending order, for
+     * example, when calculating a performance index day by day.
+     */
+    public PriceCursor priceCursor()
+    {
+        return new PriceCursor(prices, latest);
     }
 
     public String getLatestFeed()
@@ -453,7 +499,7 @@ public final class Security implements Attributable, InvestmentVehicle
 
         answer.feed = feed;
         answer.feedURL = feedURL;
-        answer.prices = new ArrayList<SecurityPrice>(prices);
+        answer.prices = prices.copy();
 
         answer.latestFeed = latestFeed;
         answer.latestFeedURL = latestFeedURL;
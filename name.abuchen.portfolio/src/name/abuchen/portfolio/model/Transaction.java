@@ -36,12 +36,24 @@ public abstract class Transaction implements Annotated
         }
 
         public Unit(Type type, Money amount, Money forex, BigDecimal exchangeRate)
+        {
+            this(type, amount, forex, exchangeRate, true);
+        }
+
+        /**
+         * Creates a unit with a forex amount. Units read from file are not
+         * checked again because they have been checked when created.
+         */
+        /* package */Unit(Type type, Money amount, Money forex, BigDecimal exchangeRate, boolean check)
         {
             this.type = Objects.requireNonNull(type);
             this.amount = Objects.requireNonNull(amount);
             this.forex = Objects.requireNonNull(forex);
             this.exchangeRate = Objects.requireNonNull(exchangeRate);
 
+            if (!check)
+                return;
+
             // check whether given amount is in range of converted amount
             long upper = Math.round(exchangeRate.add(BigDecimal.valueOf(0.0001))
                             .multiply(BigDecimal.valueOf(forex.getAmount())).doubleValue());
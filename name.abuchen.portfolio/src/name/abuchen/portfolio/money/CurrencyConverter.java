@@ -2,12 +2,43 @@ package name.abuchen.portfolio.money;
 
 import java.time.LocalDate;
 
+/**
+ * Converts monetary amounts into the term currency. Implementations must be
+ * thread-safe because performance indices and snapshots are calculated in
+ * parallel.
+ */
 public interface CurrencyConverter
 {
     String getTermCurrency();
 
     Money convert(LocalDate date, Money amount);
 
+    /**
+     * Converts the amount given in the currency into the term currency. The
+     * result is identical to <code>convert(date, Money.of(currencyCode,
+     * amount)).getAmount()</code> but implementations can avoid allocating
+     * {@link Money} objects on this path.
+     */
+    default long convert(LocalDate date, String currencyCode, long amount)
+    {
+        return convert(date, Money.of(currencyCode, amount)).getAmount();
+    }
+
+    /**
+     * Converts a column of amounts given in the currency into the term
+     * currency: <code>out[i]</code> is the amount <code>amounts[i]</code>
+     * converted with the rate of the epoch day <code>epochDays[i]</code>. The
+     * output array may be identical to the array of amounts.
+     */
+    default void convert(String currencyCode, int[] epochDays, long[] amounts, long[] out)
+    {
+        if (epochDays.length != amounts.length || out.length < amounts.length)
+            throw new IllegalArgumentException();
+
+        for (int ii = 0; ii < amounts.length; ii++)
+            out[ii] = convert(LocalDate.ofEpochDay(epochDays[ii]), currencyCode, amounts[ii]);
+    }
+
     default MonetaryOperator at(LocalDate date)
     {
         return m -> convert(date, m);
@@ -15,6 +46,16 @@ public interface CurrencyConverter
 
     ExchangeRate getRate(LocalDate date, String currencyCode);
 
+    /**
+     * Returns a number which changes whenever the exchange rates used by the
+     * converter are updated. Results calculated with the converter are valid
+     * as long as the generation does not change.
+     */
+    default long getGeneration()
+    {
+        return 0;
+    }
+
     /**
      * Returns a CurrencyConverter with the provided term currency
      */
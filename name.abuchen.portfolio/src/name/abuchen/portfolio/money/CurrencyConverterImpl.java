@@ -3,19 +3,21 @@ package name.abuchen.portfolio.money;
 import java.math.BigDecimal;
 import java.text.MessageFormat;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 
 import name.abuchen.portfolio.Messages;
 
 public class CurrencyConverterImpl implements CurrencyConverter
 {
+    /**
+     * Relative error of the double multiplication (rounding of the rate and of
+     * the product) with a generous safety margin.
+     */
+    private static final double ROUNDING_TOLERANCE = 1e-14;
+
     private final ExchangeRateProviderFactory factory;
     private final String termCurrency;
 
-    private final Map<String, ExchangeRateTimeSeries> cache = new HashMap<String, ExchangeRateTimeSeries>();
-
     public CurrencyConverterImpl(ExchangeRateProviderFactory factory, String termCurrency)
     {
         this.factory = factory;
@@ -37,9 +39,70 @@ public class CurrencyConverterImpl implements CurrencyConverter
         if (amount.isZero())
             return Money.of(termCurrency, 0);
 
-        ExchangeRate rate = getRate(date, amount.getCurrencyCode());
-        BigDecimal converted = rate.getValue().multiply(BigDecimal.valueOf(amount.getAmount()));
-        return Money.of(termCurrency, Math.round(converted.doubleValue()));
+        return Money.of(termCurrency, convert(date, amount.getCurrencyCode(), amount.getAmount()));
+    }
+
+    @Override
+    public long convert(LocalDate date, String currencyCode, long amount)
+    {
+        if (amount == 0 || termCurrency.equals(currencyCode))
+            return amount;
+
+        DailyExchangeRates daily = getSeries(currencyCode).getDailyRates();
+        if (daily != null)
+            return daily.convert((int) date.toEpochDay(), amount);
+
+        return convert(getRate(date, currencyCode), amount);
+    }
+
+    @Override
+    public void convert(String currencyCode, int[] epochDays, long[] amounts, long[] out)
+    {
+        if (epochDays.length != amounts.length || out.length < amounts.length)
+            throw new IllegalArgumentException();
+
+        if (termCurrency.equals(currencyCode))
+        {
+            System.arraycopy(amounts, 0, out, 0, amounts.length);
+            return;
+        }
+
+        DailyExchangeRates daily = getSeries(currencyCode).getDailyRates();
+        if (daily == null)
+        {
+            CurrencyConverter.super.convert(currencyCode, epochDays, amounts, out);
+            return;
+        }
+
+        for (int ii = 0; ii < amounts.length; ii++)
+            out[ii] = amounts[ii] == 0 ? 0 : daily.convert(epochDays[ii], amounts[ii]);
+    }
+
+    /**
+     * Multiplies the amount with the exchange rate in double precision. Only
+     * if the result is too close to the rounding boundary (where the error of
+     * the double calculation could change the result), the exact BigDecimal
+     * calculation is used. Therefore the result is always identical to
+     * rounding the exact product.
+     */
+    /* package */static long convert(ExchangeRate rate, long amount)
+    {
+        double converted = rate.getDoubleValue() * amount;
+        if (isSafelyRounded(converted))
+            return Math.round(converted);
+
+        BigDecimal exact = rate.getValue().multiply(BigDecimal.valueOf(amount));
+        return Math.round(exact.doubleValue());
+    }
+
+    /**
+     * Returns true if the product is far enough from the rounding boundary to
+     * be rounded in double precision.
+     */
+    /* package */static boolean isSafelyRounded(double converted)
+    {
+        double fraction = converted - Math.floor(converted);
+        return Math.abs(fraction - 0.5) > Math.abs(converted) * ROUNDING_TOLERANCE + Double.MIN_NORMAL;
     }
 
     @Override
@@ -48,9 +111,7 @@ public class CurrencyConverterImpl implements CurrencyConverter
         if (termCurrency.equals(currencyCode))
             return new ExchangeRate(date, BigDecimal.ONE);
 
-        ExchangeRateTimeSeries series = cache.computeIfAbsent(currencyCode, code -> lookupSeries(code));
-
-        Optional<ExchangeRate> rate = series.lookupRate(date);
+        Optional<ExchangeRate> rate = getSeries(currencyCode).lookupRate(date);
         if (!rate.isPresent())
             throw new MonetaryException(MessageFormat.format(Messages.MsgNoExchangeRateAvailableForConversion,
                             currencyCode, termCurrency));
@@ -58,7 +119,10 @@ public class CurrencyConverterImpl implements CurrencyConverter
         return rate.get();
     }
 
-    private ExchangeRateTimeSeries lookupSeries(String currencyCode)
+    /**
+     * Returns the time series from the (concurrent) cache of the factory.
+     */
+    private ExchangeRateTimeSeries getSeries(String currencyCode)
     {
         ExchangeRateTimeSeries series = factory.getTimeSeries(currencyCode, termCurrency);
         if (series == null)
@@ -68,12 +132,18 @@ public class CurrencyConverterImpl implements CurrencyConverter
         return series;
     }
 
+    @Override
+    public long getGeneration()
+    {
+        return factory.getGeneration();
+    }
+
     @Override
     public CurrencyConverter with(String currencyCode)
     {
         if (currencyCode.equals(termCurrency))
             return this;
 
-        return new CurrencyConverterImpl(factory, currencyCode);
+        return factory.getCurrencyConverter(currencyCode);
     }
 }
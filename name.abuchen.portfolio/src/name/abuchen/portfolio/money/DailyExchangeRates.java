@@ -0,0 +1,99 @@
+package name.abuchen.portfolio.money;
+
+import java.time.LocalDate;
+
+/**
+ * Exchange rates of a time series for every day between the first and the last
+ * rate (both included). Days without a rate carry the previous rate forward,
+ * days outside the range use the first or the last rate, i.e. the value of a
+ * day is identical to {@link ExchangeRateTimeSeries#lookupRate(LocalDate)}.
+ * <p/>
+ * Instances are immutable. Time series create them lazily and create a new
+ * instance once their rates change.
+ */
+public final class DailyExchangeRates
+{
+    private final ExchangeRateTimeSeries series;
+    private final int startDay;
+    private final double[] values;
+
+    private DailyExchangeRates(ExchangeRateTimeSeries series, int startDay, double[] values)
+    {
+        this.series = series;
+        this.startDay = startDay;
+        this.values = values;
+    }
+
+    /**
+     * Creates the daily rates by looking up the rate of each day between the
+     * first and the last date (both included).
+     */
+    public static DailyExchangeRates of(ExchangeRateTimeSeries series, LocalDate first, LocalDate last)
+    {
+        int startDay = (int) first.toEpochDay();
+        double[] values = new double[(int) (last.toEpochDay() - startDay) + 1];
+
+        ExchangeRate previous = null;
+        double value = 0d;
+
+        for (int ii = 0; ii < values.length; ii++)
+        {
+            ExchangeRate rate = series.lookupRate(LocalDate.ofEpochDay(startDay + ii))
+                            .orElseThrow(IllegalArgumentException::new);
+
+            // forward filled rates are usually the identical object
+            if (rate != previous)
+            {
+                value = rate.getDoubleValue();
+                previous = rate;
+            }
+
+            values[ii] = value;
+        }
+
+        return new DailyExchangeRates(series, startDay, values);
+    }
+
+    public LocalDate getFirstDate()
+    {
+        return LocalDate.ofEpochDay(startDay);
+    }
+
+    public LocalDate getLastDate()
+    {
+        return LocalDate.ofEpochDay(startDay + values.length - 1L);
+    }
+
+    private int indexOf(int epochDay)
+    {
+        int index = epochDay - startDay;
+        if (index < 0)
+            return 0;
+        else if (index >= values.length)
+            return values.length - 1;
+        else
+            return index;
+    }
+
+    public double getValue(int epochDay)
+    {
+        return values[indexOf(epochDay)];
+    }
+
+    /**
+     * Converts the amount with the rate of the given day. The result is
+     * identical to {@link CurrencyConverterImpl#convert(ExchangeRate, long)}.
+     */
+    public long convert(int epochDay, long amount)
+    {
+        int index = indexOf(epochDay);
+
+        double converted = values[index] * amount;
+        if (CurrencyConverterImpl.isSafelyRounded(converted))
+            return Math.round(converted);
+
+        ExchangeRate rate = series.lookupRate(LocalDate.ofEpochDay(startDay + index))
+                        .orElseThrow(IllegalArgumentException::new);
+        return CurrencyConverterImpl.convert(rate, amount);
+    }
+}
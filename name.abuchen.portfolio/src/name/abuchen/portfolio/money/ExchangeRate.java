@@ -22,6 +22,11 @@ public class ExchangeRate implements Comparable<ExchangeRate>
     private LocalDate time;
     private BigDecimal value;
 
+    /**
+     * Cached double representation of the value (0 if not yet calculated).
+     */
+    private transient double doubleValue;
+
     public ExchangeRate()
     {
         // empty constructor needed for xstream
@@ -55,6 +60,15 @@ public class ExchangeRate implements Comparable<ExchangeRate>
     {
         Objects.requireNonNull(value);
         this.value = value;
+        this.doubleValue = 0;
+    }
+
+    /* package */double getDoubleValue()
+    {
+        double answer = doubleValue;
+        if (answer == 0)
+            doubleValue = answer = value.doubleValue();
+        return answer;
     }
 
     public ExchangeRate inverse()
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.imageio.spi.ServiceRegistry;
 import javax.inject.Singleton;
@@ -16,6 +18,17 @@ public class ExchangeRateProviderFactory
 {
     private final List<ExchangeRateProvider> providers;
 
+    /**
+     * Materialized time series by term currency and base currency. The map is
+     * replaced (not cleared) upon invalidation so that lookups running
+     * concurrently to an update do not add outdated time series.
+     */
+    private volatile Map<String, Map<String, ExchangeRateTimeSeries>> cache = new ConcurrentHashMap<>();
+
+    private final Map<String, CurrencyConverter> converters = new ConcurrentHashMap<>();
+
+    private volatile long generation;
+
     public ExchangeRateProviderFactory()
     {
         providers = new ArrayList<ExchangeRateProvider>();
@@ -41,7 +54,66 @@ public class ExchangeRateProviderFactory
         return series;
     }
 
+    /**
+     * Returns the time series for the given currency pair. Derived time series
+     * (inverse and chained) are materialized on first use and cached until
+     * the providers signal an update via {@link #invalidateCache()}.
+     */
     public ExchangeRateTimeSeries getTimeSeries(String baseCurrency, String termCurrency)
+    {
+        Map<String, Map<String, ExchangeRateTimeSeries>> byTerm = cache;
+        Map<String, ExchangeRateTimeSeries> c = byTerm.get(termCurrency);
+        if (c == null)
+            c = byTerm.computeIfAbsent(termCurrency, t -> new ConcurrentHashMap<>());
+
+        // no computeIfAbsent: providers recursively look up time series
+        ExchangeRateTimeSeries series = c.get(baseCurrency);
+        if (series == null)
+        {
+            series = lookupTimeSeries(baseCurrency, termCurrency);
+            if (series != null)
+            {
+                series = MaterializedExchangeRateTimeSeries.of(series);
+                ExchangeRateTimeSeries other = c.putIfAbsent(baseCurrency, series);
+                if (other != null)
+                    series = other;
+            }
+        }
+
+        return series;
+    }
+
+    /**
+     * Returns the shared currency converter for the given term currency. The
+     * converters are thread-safe and look up time series via the cache of this
+     * factory, i.e. they use updated exchange rates once the providers have
+     * invalidated the cache.
+     */
+    public CurrencyConverter getCurrencyConverter(String termCurrency)
+    {
+        return converters.computeIfAbsent(termCurrency, t -> new CurrencyConverterImpl(this, t));
+    }
+
+    /**
+     * Discards the materialized time series. Providers call this method once
+     * their exchange rates have been loaded or updated.
+     */
+    public void invalidateCache()
+    {
+        cache = new ConcurrentHashMap<>();
+        generation++;
+    }
+
+    /**
+     * Returns the number of times the providers have updated their exchange
+     * rates, see {@link CurrencyConverter#getGeneration()}.
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    private ExchangeRateTimeSeries lookupTimeSeries(String baseCurrency, String termCurrency)
     {
         for (ExchangeRateProvider p : providers)
         {
@@ -15,4 +15,13 @@ public interface ExchangeRateTimeSeries
     List<ExchangeRate> getRates();
 
     Optional<ExchangeRate> lookupRate(LocalDate requestedTime);
+
+    /**
+     * Returns the rates of the time series addressable by epoch day or null if
+     * the time series does not support it (or has no rates at all).
+     */
+    default DailyExchangeRates getDailyRates()
+    {
+        return null;
+    }
 }
@@ -0,0 +1,114 @@
+package name.abuchen.portfolio.money;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable copy of the rates of a (derived) time series. Inverse and chained
+ * time series calculate every rate upon lookup; the materialized series
+ * calculates each rate once and returns the stored rate afterwards.
+ */
+/* package */final class MaterializedExchangeRateTimeSeries implements ExchangeRateTimeSeries
+{
+    private final ExchangeRateTimeSeries source;
+    private final int[] epochDays;
+    private final ExchangeRate[] rates;
+
+    private volatile DailyExchangeRates dailyRates;
+
+    private MaterializedExchangeRateTimeSeries(ExchangeRateTimeSeries source, int[] epochDays, ExchangeRate[] rates)
+    {
+        this.source = source;
+        this.epochDays = epochDays;
+        this.rates = rates;
+    }
+
+    /**
+     * Materializes the rates of the given time series. If the time series
+     * cannot be materialized (because it does not provide daily rates), the
+     * time series itself is returned.
+     */
+    public static ExchangeRateTimeSeries of(ExchangeRateTimeSeries source)
+    {
+        DailyExchangeRates daily = source.getDailyRates();
+        if (daily == null)
+            return source;
+
+        List<ExchangeRate> rates = new ArrayList<>();
+        ExchangeRate previous = null;
+
+        LocalDate last = daily.getLastDate();
+        for (LocalDate date = daily.getFirstDate(); !date.isAfter(last); date = date.plusDays(1))
+        {
+            ExchangeRate rate = source.lookupRate(date).orElseThrow(IllegalArgumentException::new);
+
+            if (previous == null || rate.getValue().compareTo(previous.getValue()) != 0)
+            {
+                // the rate is valid from this date onwards (chained series
+                // return the requested date anyway)
+                previous = rate.getTime().equals(date) ? rate : new ExchangeRate(date, rate.getValue());
+                rates.add(previous);
+            }
+        }
+
+        int[] epochDays = new int[rates.size()];
+        for (int ii = 0; ii < epochDays.length; ii++)
+            epochDays[ii] = (int) rates.get(ii).getTime().toEpochDay();
+
+        return new MaterializedExchangeRateTimeSeries(source, epochDays, rates.toArray(new ExchangeRate[rates.size()]));
+    }
+
+    @Override
+    public String getBaseCurrency()
+    {
+        return source.getBaseCurrency();
+    }
+
+    @Override
+    public String getTermCurrency()
+    {
+        return source.getTermCurrency();
+    }
+
+    @Override
+    public ExchangeRateProvider getProvider()
+    {
+        return source.getProvider();
+    }
+
+    @Override
+    public List<ExchangeRate> getRates()
+    {
+        return new ArrayList<>(Arrays.asList(rates));
+    }
+
+    @Override
+    public Optional<ExchangeRate> lookupRate(LocalDate requestedTime)
+    {
+        int index = Arrays.binarySearch(epochDays, (int) requestedTime.toEpochDay());
+
+        if (index >= 0)
+            return Optional.of(rates[index]);
+        else if (index == -1) // requested is date before first rate
+            return Optional.of(rates[0]);
+        else
+            return Optional.of(rates[-index - 2]);
+    }
+
+    @Override
+    public DailyExchangeRates getDailyRates()
+    {
+        DailyExchangeRates answer = dailyRates;
+
+        if (answer == null)
+        {
+            answer = DailyExchangeRates.of(this, rates[0].getTime(), rates[rates.length - 1].getTime());
+            dailyRates = answer;
+        }
+
+        return answer;
+    }
+}
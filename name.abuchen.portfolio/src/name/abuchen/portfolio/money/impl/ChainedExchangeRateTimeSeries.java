@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import name.abuchen.portfolio.money.DailyExchangeRates;
 import name.abuchen.portfolio.money.ExchangeRate;
 import name.abuchen.portfolio.money.ExchangeRateProvider;
 import name.abuchen.portfolio.money.ExchangeRateTimeSeries;
@@ -13,6 +14,10 @@ public class ChainedExchangeRateTimeSeries implements ExchangeRateTimeSeries
 {
     private ExchangeRateTimeSeries[] series;
 
+    // daily rates of all chained series plus the combined daily rates (last
+    // element) -> rebuilt if any of the chained series has changed
+    private volatile DailyExchangeRates[] dailyRates;
+
     public ChainedExchangeRateTimeSeries(ExchangeRateTimeSeries... series)
     {
         if (series.length == 0)
@@ -62,4 +67,42 @@ public class ChainedExchangeRateTimeSeries implements ExchangeRateTimeSeries
         return Optional.of(new ExchangeRate(requestedTime, value));
     }
 
+    @Override
+    public DailyExchangeRates getDailyRates()
+    {
+        DailyExchangeRates[] cached = dailyRates;
+        if (cached != null && isUpToDate(cached))
+            return cached[series.length];
+
+        DailyExchangeRates[] sourceRates = new DailyExchangeRates[series.length + 1];
+        LocalDate first = null;
+        LocalDate last = null;
+
+        for (int ii = 0; ii < series.length; ii++)
+        {
+            DailyExchangeRates rates = series[ii].getDailyRates();
+            if (rates == null)
+                return null;
+
+            sourceRates[ii] = rates;
+            if (first == null || rates.getFirstDate().isBefore(first))
+                first = rates.getFirstDate();
+            if (last == null || rates.getLastDate().isAfter(last))
+                last = rates.getLastDate();
+        }
+
+        sourceRates[series.length] = DailyExchangeRates.of(this, first, last);
+        dailyRates = sourceRates;
+        return sourceRates[series.length];
+    }
+
+    private boolean isUpToDate(DailyExchangeRates[] cached)
+    {
+        for (int ii = 0; ii < series.length; ii++)
+        {
+            if (series[ii].getDailyRates() != cached[ii])
+                return false;
+        }
+        return true;
+    }
 }
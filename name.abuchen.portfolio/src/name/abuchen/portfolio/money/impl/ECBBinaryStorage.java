@@ -0,0 +1,176 @@
+package name.abuchen.portfolio.money.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import name.abuchen.portfolio.money.ExchangeRate;
+
+/**
+ * Binary storage of the exchange rates provided by the European Central Bank.
+ * <p/>
+ * The file starts with a header (magic number, version, last modified, number
+ * of series) followed by a directory (base and term currency, number of rates,
+ * offset of the block) and one block per series. A block holds the epoch days
+ * of all rates, then the unscaled values, then the scales of the values.
+ * <p/>
+ * The file is read into memory at once, but the rates of a series are decoded
+ * only when the series is accessed first. The file is not kept open (or
+ * mapped) in order to replace it when saving updated rates.
+ */
+/* package */class ECBBinaryStorage
+{
+    private static final int MAGIC = 0x50504543; // PPEC
+    private static final int VERSION = 1;
+
+    private static final int BYTES_PER_RATE = Integer.BYTES + Long.BYTES + Byte.BYTES;
+
+    /**
+     * Signals that the file is not a complete storage of this version, as
+     * opposed to I/O errors while reading the file.
+     */
+    /* package */static final class InvalidFormatException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private InvalidFormatException(String message, Throwable cause)
+        {
+            super(message, cause);
+        }
+    }
+
+    private ECBBinaryStorage()
+    {}
+
+    public static void write(ECBData data, File file) throws IOException
+    {
+        List<ExchangeRateTimeSeriesImpl> series = data.getSeries();
+
+        List<List<ExchangeRate>> rates = new ArrayList<>();
+        for (ExchangeRateTimeSeriesImpl s : series)
+        {
+            List<ExchangeRate> list = s.getRates();
+            for (ExchangeRate rate : list)
+            {
+                BigDecimal value = rate.getValue();
+                if (value.scale() != (byte) value.scale() || value.unscaledValue().bitLength() >= Long.SIZE)
+                    throw new IOException(s.getTermCurrency() + " " + rate); //$NON-NLS-1$
+            }
+            rates.add(list);
+        }
+
+        ByteArrayOutputStream directory = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(directory);
+
+        long offset = 0;
+        for (int ii = 0; ii < series.size(); ii++)
+        {
+            out.writeUTF(series.get(ii).getBaseCurrency());
+            out.writeUTF(series.get(ii).getTermCurrency());
+            out.writeInt(rates.get(ii).size());
+            out.writeLong(offset);
+            offset += (long) rates.get(ii).size() * BYTES_PER_RATE;
+        }
+        out.flush();
+
+        // write to a temporary file first in order to keep the current file
+        // intact if writing fails
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+        {
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeLong(data.getLastModified());
+            stream.writeInt(series.size());
+            stream.writeInt(directory.size());
+            directory.writeTo(stream);
+
+            for (List<ExchangeRate> list : rates)
+            {
+                for (ExchangeRate rate : list)
+                    stream.writeInt((int) rate.getTime().toEpochDay());
+                for (ExchangeRate rate : list)
+                    stream.writeLong(rate.getValue().unscaledValue().longValueExact());
+                for (ExchangeRate rate : list)
+                    stream.writeByte(rate.getValue().scale());
+            }
+        }
+
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static ECBData read(File file, ECBExchangeRateProvider provider) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        try
+        {
+            if (buffer.getInt() != MAGIC)
+                throw new InvalidFormatException(file.getName(), null);
+            if (buffer.getInt() != VERSION)
+                throw new InvalidFormatException(file.getName(), null);
+
+            ECBData data = new ECBData();
+            data.setLastModified(buffer.getLong());
+
+            int size = buffer.getInt();
+            int blocks = buffer.position() + Integer.BYTES + buffer.getInt();
+
+            for (int ii = 0; ii < size; ii++)
+            {
+                String baseCurrency = readUTF(buffer);
+                String termCurrency = readUTF(buffer);
+                int count = buffer.getInt();
+                int position = Math.toIntExact(blocks + buffer.getLong());
+
+                if (position + (long) count * BYTES_PER_RATE > buffer.limit())
+                    throw new InvalidFormatException(file.getName(), null);
+
+                data.addSeries(new ExchangeRateTimeSeriesImpl(provider, baseCurrency, termCurrency,
+                                () -> decode(buffer, position, count)));
+            }
+
+            return data;
+        }
+        catch (RuntimeException e)
+        {
+            throw new InvalidFormatException(file.getName(), e);
+        }
+    }
+
+    private static String readUTF(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<ExchangeRate> decode(ByteBuffer buffer, int position, int count)
+    {
+        // absolute reads only: the buffer is shared by all series
+        int days = position;
+        int values = days + count * Integer.BYTES;
+        int scales = values + count * Long.BYTES;
+
+        List<ExchangeRate> answer = new ArrayList<>(count);
+        for (int ii = 0; ii < count; ii++)
+        {
+            LocalDate date = LocalDate.ofEpochDay(buffer.getInt(days + ii * Integer.BYTES));
+            BigDecimal value = BigDecimal.valueOf(buffer.getLong(values + ii * Long.BYTES), buffer.get(scales + ii));
+            answer.add(new ExchangeRate(date, value));
+        }
+        return answer;
+    }
+}
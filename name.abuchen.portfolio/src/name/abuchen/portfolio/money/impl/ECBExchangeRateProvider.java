@@ -1,13 +1,12 @@
 package name.abuchen.portfolio.money.impl;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -40,11 +39,15 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
 {
     public static final String EUR = "EUR"; //$NON-NLS-1$
 
+    private static final String FILE_BINARY_STORAGE = "ecb_exchange_rates.bin"; //$NON-NLS-1$
+
+    // legacy XML storage: migrated to the binary storage upon load
     private static final String FILE_STORAGE = "ecb_exchange_rates.xml"; //$NON-NLS-1$
     private static final String FILE_SUMMARY = "ecb_exchange_rates_summary.xml"; //$NON-NLS-1$
 
     private volatile XStream xstream;
     private ECBData data = new ECBData();
+    private ExchangeRateProviderFactory factory;
 
     public ECBExchangeRateProvider()
     {
@@ -65,7 +68,7 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
     @Override
     public void init(ExchangeRateProviderFactory factory)
     {
-        // nothing to do
+        this.factory = factory;
     }
 
     @Override
@@ -73,6 +76,27 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
     {
         monitor.beginTask(MessageFormat.format(Messages.MsgLoadingExchangeRates, getName()), 2);
 
+        // binary storage: reads only the directory, the rates of a currency
+        // are decoded upon first use
+        File binary = getStorageFile(FILE_BINARY_STORAGE);
+        if (binary.exists())
+        {
+            try
+            {
+                data = ECBBinaryStorage.read(binary, this);
+                invalidateCache();
+                monitor.worked(2);
+                return;
+            }
+            catch (ECBBinaryStorage.InvalidFormatException e)
+            {
+                // corrupt (or written by a newer version): fall back to the
+                // XML storage or download the rates again. Other I/O errors
+                // are passed on as they might be transient.
+                Files.delete(binary.toPath());
+            }
+        }
+
         // read summary first (contains only latest rates, but is fast)
         File file = getStorageFile(FILE_SUMMARY);
         if (file.exists())
@@ -88,6 +112,7 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
                 summary.addSeries(s);
             }
             data = summary;
+            invalidateCache();
         }
         monitor.worked(1);
 
@@ -98,16 +123,46 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
             ECBData loaded = (ECBData) xstream().fromXML(file);
             loaded.doPostLoadProcessing(this);
             data = loaded;
+            invalidateCache();
+
+            // migrate to binary storage. If writing fails, the rates read
+            // from the XML storage are used and the migration is retried
+            // upon the next start.
+            if (migrate(loaded, binary))
+            {
+                Files.delete(file.toPath());
+                Files.deleteIfExists(getStorageFile(FILE_SUMMARY).toPath());
+            }
         }
         monitor.worked(1);
     }
 
+    private boolean migrate(ECBData loaded, File binary)
+    {
+        try
+        {
+            ECBBinaryStorage.write(loaded, binary);
+            return true;
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
     @Override
     public synchronized void update(IProgressMonitor monitor) throws IOException
     {
         ECBData copy = this.data.copy();
         new ECBUpdater().update(this, copy);
         this.data = copy;
+        invalidateCache();
+    }
+
+    private void invalidateCache()
+    {
+        if (factory != null)
+            factory.invalidateCache();
     }
 
     @Override
@@ -116,18 +171,8 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
         if (!data.isDirty())
             return;
 
-        // store latest exchange rate separately -> faster to load upon startup
-        // of the application
-        File file = getStorageFile(FILE_SUMMARY);
-
-        Map<String, ExchangeRate> summary = new HashMap<String, ExchangeRate>();
-        for (ExchangeRateTimeSeriesImpl s : data.getSeries())
-            s.getLatest().ifPresent(rate -> summary.put(s.getTermCurrency(), rate));
-        write(summary, file);
-
-        // write the full history data
-        file = getStorageFile(FILE_STORAGE);
-        write(data, file);
+        ECBBinaryStorage.write(data, getStorageFile(FILE_BINARY_STORAGE));
+        data.setDirty(false);
     }
 
     @Override
@@ -168,21 +213,6 @@ public class ECBExchangeRateProvider implements ExchangeRateProvider
         return bundle.getDataFile(name);
     }
 
-    private void write(Object object, File file) throws IOException
-    {
-        FileOutputStream out = null;
-        try
-        {
-            out = new FileOutputStream(file);
-            xstream().toXML(object, out);
-        }
-        finally
-        {
-            if (out != null)
-                out.close();
-        }
-    }
-
     /**
      * Make sure we have at least one exchange rate available. The program might
      * not have a connection to the internet (run behind a proxy) and is unable
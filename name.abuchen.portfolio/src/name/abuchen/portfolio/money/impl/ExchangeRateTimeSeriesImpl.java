@@ -6,7 +6,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import name.abuchen.portfolio.money.DailyExchangeRates;
 import name.abuchen.portfolio.money.ExchangeRate;
 import name.abuchen.portfolio.money.ExchangeRateProvider;
 import name.abuchen.portfolio.money.ExchangeRateTimeSeries;
@@ -19,6 +21,12 @@ public class ExchangeRateTimeSeriesImpl implements ExchangeRateTimeSeries
     private String termCurrency;
     private List<ExchangeRate> rates = new ArrayList<ExchangeRate>();
 
+    // decodes the rates upon first access (see ECBBinaryStorage)
+    private transient volatile Supplier<List<ExchangeRate>> loader;
+
+    // created lazily, discarded whenever a rate is added
+    private transient volatile DailyExchangeRates dailyRates;
+
     public ExchangeRateTimeSeriesImpl()
     {
         // empty constructor needed for xstream
@@ -29,7 +37,12 @@ public class ExchangeRateTimeSeriesImpl implements ExchangeRateTimeSeries
         this.provider = template.provider;
         this.baseCurrency = template.baseCurrency;
         this.termCurrency = template.termCurrency;
-        this.rates.addAll(template.rates);
+
+        Supplier<List<ExchangeRate>> l = template.loader;
+        if (l != null)
+            this.loader = l;
+        else
+            this.rates.addAll(template.rates());
     }
 
     public ExchangeRateTimeSeriesImpl(ExchangeRateProvider provider, String baseCurrency, String termCurrency)
@@ -39,6 +52,30 @@ public class ExchangeRateTimeSeriesImpl implements ExchangeRateTimeSeries
         this.termCurrency = termCurrency;
     }
 
+    /* package */ ExchangeRateTimeSeriesImpl(ExchangeRateProvider provider, String baseCurrency, String termCurrency,
+                    Supplier<List<ExchangeRate>> loader)
+    {
+        this(provider, baseCurrency, termCurrency);
+        this.loader = loader;
+    }
+
+    private List<ExchangeRate> rates()
+    {
+        if (loader != null)
+        {
+            synchronized (this)
+            {
+                Supplier<List<ExchangeRate>> l = loader;
+                if (l != null)
+                {
+                    rates = new ArrayList<ExchangeRate>(l.get());
+                    loader = null;
+                }
+            }
+        }
+        return rates;
+    }
+
     @Override
     public String getBaseCurrency()
     {
@@ -60,7 +97,7 @@ public class ExchangeRateTimeSeriesImpl implements ExchangeRateTimeSeries
     @Override
     public List<ExchangeRate> getRates()
     {
-        return new ArrayList<ExchangeRate>(rates);
+        return new ArrayList<ExchangeRate>(rates());
     }
 
     public void setProvider(ExchangeRateProvider provider)
@@ -80,34 +117,54 @@ public class ExchangeRateTimeSeriesImpl implements ExchangeRateTimeSeries
 
     public void addRate(ExchangeRate rate)
     {
-        int index = Collections.binarySearch(rates, rate);
+        List<ExchangeRate> list = rates();
+        int index = Collections.binarySearch(list, rate);
 
         if (index < 0)
-            rates.add(~index, rate);
+            list.add(~index, rate);
         else
-            rates.set(index, rate);
+            list.set(index, rate);
+
+        dailyRates = null;
     }
 
     public Optional<ExchangeRate> getLatest()
     {
-        return rates.isEmpty() ? Optional.empty() : Optional.of(rates.get(rates.size() - 1));
+        List<ExchangeRate> list = rates();
+        return list.isEmpty() ? Optional.empty() : Optional.of(list.get(list.size() - 1));
     }
 
     @Override
     public Optional<ExchangeRate> lookupRate(LocalDate requestedTime)
     {
-        if (rates.isEmpty())
+        List<ExchangeRate> list = rates();
+        if (list.isEmpty())
             return Optional.empty();
 
         ExchangeRate r = new ExchangeRate(requestedTime, BigDecimal.ZERO);
-        int index = Collections.binarySearch(rates, r);
+        int index = Collections.binarySearch(list, r);
 
         if (index >= 0)
-            return Optional.of(rates.get(index));
+            return Optional.of(list.get(index));
         else if (index == -1) // requested is date before first rate
-            return Optional.of(rates.get(0));
+            return Optional.of(list.get(0));
         else
-            return Optional.of(rates.get(-index - 2));
+            return Optional.of(list.get(-index - 2));
+    }
+
+    @Override
+    public DailyExchangeRates getDailyRates()
+    {
+        DailyExchangeRates answer = dailyRates;
+
+        if (answer == null && !rates().isEmpty())
+        {
+            List<ExchangeRate> list = rates();
+            answer = DailyExchangeRates.of(this, list.get(0).getTime(), list.get(list.size() - 1).getTime());
+            dailyRates = answer;
+        }
+
+        return answer;
     }
 
 }
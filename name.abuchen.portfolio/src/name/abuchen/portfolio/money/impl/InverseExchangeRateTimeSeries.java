@@ -5,6 +5,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import name.abuchen.portfolio.money.DailyExchangeRates;
 import name.abuchen.portfolio.money.ExchangeRate;
 import name.abuchen.portfolio.money.ExchangeRateProvider;
 import name.abuchen.portfolio.money.ExchangeRateTimeSeries;
@@ -13,6 +14,10 @@ public class InverseExchangeRateTimeSeries implements ExchangeRateTimeSeries
 {
     private ExchangeRateTimeSeries source;
 
+    // daily rates together with the daily rates of the source they are
+    // derived from -> rebuilt if the source has changed
+    private volatile DailyExchangeRates[] dailyRates;
+
     public InverseExchangeRateTimeSeries(ExchangeRateTimeSeries source)
     {
         this.source = source;
@@ -57,4 +62,20 @@ public class InverseExchangeRateTimeSeries implements ExchangeRateTimeSeries
             return answer;
         }
     }
+
+    @Override
+    public DailyExchangeRates getDailyRates()
+    {
+        DailyExchangeRates sourceRates = source.getDailyRates();
+        if (sourceRates == null)
+            return null;
+
+        DailyExchangeRates[] cached = dailyRates;
+        if (cached != null && cached[0] == sourceRates)
+            return cached[1];
+
+        DailyExchangeRates answer = DailyExchangeRates.of(this, sourceRates.getFirstDate(), sourceRates.getLastDate());
+        dailyRates = new DailyExchangeRates[] { sourceRates, answer };
+        return answer;
+    }
 }
@@ -245,14 +245,11 @@ public class HTMLTableQuoteFeed implements QuoteFeed
     {
         List<LatestSecurityPrice> quotes = internalGetQuotes(security, security.getFeedURL(), errors);
 
-        boolean isUpdated = false;
+        List<SecurityPrice> prices = new ArrayList<>(quotes.size());
         for (LatestSecurityPrice quote : quotes)
-        {
-            boolean isAdded = security.addPrice(new SecurityPrice(quote.getTime(), quote.getValue()));
-            isUpdated = isUpdated || isAdded;
-        }
+            prices.add(new SecurityPrice(quote.getTime(), quote.getValue()));
 
-        return isUpdated;
+        return security.mergePrices(prices) > 0;
     }
 
     @Override
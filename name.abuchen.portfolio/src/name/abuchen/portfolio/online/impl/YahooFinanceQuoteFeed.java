@@ -162,16 +162,7 @@ public class YahooFinanceQuoteFeed implements QuoteFeed
 
         List<SecurityPrice> quotes = internalGetQuotes(SecurityPrice.class, security, start, errors);
 
-        boolean isUpdated = false;
-        if (quotes != null)
-        {
-            for (SecurityPrice p : quotes)
-            {
-                boolean isAdded = security.addPrice(p);
-                isUpdated = isUpdated || isAdded;
-            }
-        }
-        return isUpdated;
+        return quotes != null && security.mergePrices(quotes) > 0;
     }
 
     /**
@@ -0,0 +1,215 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.Transaction;
+
+/**
+ * Keeps, for each account, the transactions sorted by date and the balance of
+ * the account after each of them. The funds of an account at any given date
+ * are then a binary search instead of a sum over all transactions.
+ * Additionally, the account transactions are bucketed by security.
+ * <p/>
+ * The balances of a client are built once per {@link Client#getRevision()
+ * revision} of the client. Callers modifying transactions must therefore mark
+ * the client dirty (which the UI does anyway).
+ */
+public final class AccountBalances
+{
+    private static final class Balance
+    {
+        private final List<AccountTransaction> transactions;
+        private final long[] epochDays;
+        private final long[] balances;
+
+        private Balance(Account account)
+        {
+            this.transactions = new ArrayList<>(account.getTransactions());
+            this.transactions.sort(new Transaction.ByDate());
+
+            this.epochDays = new long[transactions.size()];
+            this.balances = new long[transactions.size()];
+
+            long balance = 0;
+            for (int ii = 0; ii < epochDays.length; ii++)
+            {
+                AccountTransaction t = transactions.get(ii);
+                balance += signedAmount(t);
+                epochDays[ii] = t.getDate().toEpochDay();
+                balances[ii] = balance;
+            }
+        }
+
+        /**
+         * Returns the number of transactions booked on or before the given
+         * date.
+         */
+        private int count(LocalDate date)
+        {
+            long day = date.toEpochDay();
+
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high)
+            {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] <= day)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        private long getFunds(LocalDate date)
+        {
+            int count = count(date);
+            return count == 0 ? 0 : balances[count - 1];
+        }
+
+        private List<AccountTransaction> getTransactions(LocalDate start, LocalDate end)
+        {
+            int from = count(start.minusDays(1));
+            int to = count(end);
+            return from < to ? transactions.subList(from, to) : Collections.emptyList();
+        }
+    }
+
+    private static final Map<Client, AccountBalances> CACHE = new WeakHashMap<>();
+
+    private final long revision;
+    private final int size;
+    private final Map<Account, Balance> accounts = new HashMap<>();
+    private final Map<Security, List<AccountTransaction>> securities = new HashMap<>();
+
+    private AccountBalances(long revision, int size)
+    {
+        this.revision = revision;
+        this.size = size;
+    }
+
+    /**
+     * Returns the account balances for the given client. The balances are
+     * cached and only rebuilt if the client has been modified.
+     */
+    public static AccountBalances of(Client client)
+    {
+        synchronized (CACHE)
+        {
+            AccountBalances balances = CACHE.get(client);
+
+            if (balances == null || balances.revision != client.getRevision()
+                            || balances.size != size(client.getAccounts()))
+            {
+                balances = build(client.getRevision(), client.getAccounts());
+                CACHE.put(client, balances);
+            }
+
+            return balances;
+        }
+    }
+
+    /**
+     * Builds (not cached) balances for the given accounts.
+     */
+    public static AccountBalances of(List<Account> accounts)
+    {
+        return build(-1, accounts);
+    }
+
+    private static AccountBalances build(long revision, List<Account> accounts)
+    {
+        AccountBalances balances = new AccountBalances(revision, size(accounts));
+        for (Account account : accounts)
+        {
+            balances.accounts.put(account, new Balance(account));
+
+            for (AccountTransaction t : account.getTransactions())
+            {
+                if (t.getSecurity() != null)
+                    balances.securities.computeIfAbsent(t.getSecurity(), s -> new ArrayList<>()).add(t);
+            }
+        }
+        return balances;
+    }
+
+    private static int size(List<Account> accounts)
+    {
+        int size = 0;
+        for (Account account : accounts)
+            size += account.getTransactions().size();
+        return size;
+    }
+
+    /* package */static long signedAmount(AccountTransaction t)
+    {
+        switch (t.getType())
+        {
+            case DEPOSIT:
+            case DIVIDENDS:
+            case INTEREST:
+            case SELL:
+            case TRANSFER_IN:
+            case TAX_REFUND:
+                return t.getAmount();
+            case FEES:
+            case TAXES:
+            case REMOVAL:
+            case BUY:
+            case TRANSFER_OUT:
+                return -t.getAmount();
+            default:
+                throw new RuntimeException("Unknown Account Transaction type: " + t.getType()); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Returns true if the balances contain the transactions of the given
+     * account.
+     */
+    public boolean contains(Account account)
+    {
+        return accounts.containsKey(account);
+    }
+
+    /**
+     * Returns the funds of the account (in the currency of the account) at the
+     * end of the given date.
+     */
+    public long getFunds(Account account, LocalDate date)
+    {
+        Balance balance = accounts.get(account);
+        return balance != null ? balance.getFunds(date) : 0;
+    }
+
+    /**
+     * Returns the transactions of the account booked within the given dates
+     * (both inclusive), sorted by date.
+     */
+    public List<AccountTransaction> getTransactions(Account account, LocalDate start, LocalDate end)
+    {
+        Balance balance = accounts.get(account);
+        return balance != null ? Collections.unmodifiableList(balance.getTransactions(start, end))
+                        : Collections.emptyList();
+    }
+
+    /**
+     * Returns the transactions of all accounts which refer to the given
+     * security.
+     */
+    public List<AccountTransaction> getTransactions(Security security)
+    {
+        List<AccountTransaction> transactions = securities.get(security);
+        return transactions != null ? Collections.unmodifiableList(transactions) : Collections.emptyList();
+    }
+}
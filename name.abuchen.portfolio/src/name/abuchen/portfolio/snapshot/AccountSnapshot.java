@@ -14,33 +14,30 @@ public class AccountSnapshot
     // //////////////////////////////////////////////////////////////
 
     public static AccountSnapshot create(Account account, CurrencyConverter converter, LocalDate date)
+    {
+        return create(account, converter, date, null);
+    }
+
+    /**
+     * Creates the snapshot looking up the funds in the given account balances.
+     * If the balances do not contain the account, the funds are calculated
+     * from the transactions.
+     */
+    public static AccountSnapshot create(Account account, CurrencyConverter converter, LocalDate date,
+                    AccountBalances balances)
     {
         long funds = 0;
 
-        for (AccountTransaction t : account.getTransactions())
+        if (balances != null && balances.contains(account))
+        {
+            funds = balances.getFunds(account, date);
+        }
+        else
         {
-            if (!t.getDate().isAfter(date))
+            for (AccountTransaction t : account.getTransactions())
             {
-                switch (t.getType())
-                {
-                    case DEPOSIT:
-                    case DIVIDENDS:
-                    case INTEREST:
-                    case SELL:
-                    case TRANSFER_IN:
-                    case TAX_REFUND:
-                        funds += t.getAmount();
-                        break;
-                    case FEES:
-                    case TAXES:
-                    case REMOVAL:
-                    case BUY:
-                    case TRANSFER_OUT:
-                        funds -= t.getAmount();
-                        break;
-                    default:
-                        throw new RuntimeException("Unknown Account Transaction type: " + t.getType()); //$NON-NLS-1$
-                }
+                if (!t.getDate().isAfter(date))
+                    funds += AccountBalances.signedAmount(t);
             }
         }
 
@@ -26,6 +26,11 @@ import name.abuchen.portfolio.money.Money;
     {
         final Client pseudoClient = new Client();
 
+        // transactions are bucketed by security once instead of scanning all
+        // transactions for every assigned security
+        final HoldingsLedger ledger = HoldingsLedger.of(client);
+        final AccountBalances balances = AccountBalances.of(client);
+
         classification.accept(new Visitor()
         {
             @Override
@@ -34,7 +39,7 @@ import name.abuchen.portfolio.money.Money;
                 InvestmentVehicle vehicle = assignment.getInvestmentVehicle();
 
                 if (vehicle instanceof Security)
-                    addSecurity(pseudoClient, client, (Security) vehicle, assignment.getWeight());
+                    addSecurity(pseudoClient, ledger, balances, (Security) vehicle, assignment.getWeight());
                 else if (vehicle instanceof Account)
                     addAccount(pseudoClient, (Account) vehicle, assignment.getWeight());
             }
@@ -43,7 +48,8 @@ import name.abuchen.portfolio.money.Money;
         return PerformanceIndex.forClient(pseudoClient, converter, reportInterval, warnings);
     }
 
-    private static void addSecurity(Client pseudoClient, Client client, Security security, int weight)
+    private static void addSecurity(Client pseudoClient, HoldingsLedger ledger, AccountBalances balances,
+                    Security security, int weight)
     {
         // if a security has no currency code, it must be an index and must not
         // have transactions after all
@@ -61,75 +67,63 @@ import name.abuchen.portfolio.money.Money;
 
         pseudoClient.addSecurity(security);
 
-        for (Portfolio p : client.getPortfolios())
+        for (PortfolioTransaction t : ledger.getTransactions(security))
         {
-            for (PortfolioTransaction t : p.getTransactions())
-            {
-                if (!security.equals(t.getSecurity()))
-                    continue;
-
-                PortfolioTransaction pseudo = new PortfolioTransaction();
-                pseudo.setDate(t.getDate());
-                pseudo.setCurrencyCode(t.getCurrencyCode());
-                pseudo.setSecurity(security);
-                pseudo.setShares(value(t.getShares(), weight));
+            PortfolioTransaction pseudo = new PortfolioTransaction();
+            pseudo.setDate(t.getDate());
+            pseudo.setCurrencyCode(t.getCurrencyCode());
+            pseudo.setSecurity(security);
+            pseudo.setShares(value(t.getShares(), weight));
 
-                // convert type to the appropriate delivery type (either inbound
-                // or outbound delivery)
+            // convert type to the appropriate delivery type (either inbound
+            // or outbound delivery)
 
-                pseudo.setType(convertTypeToDelivery(t.getType()));
+            pseudo.setType(convertTypeToDelivery(t.getType()));
 
-                // calculation is without taxes -> remove any taxes & adapt
-                // total accordingly
+            // calculation is without taxes -> remove any taxes & adapt
+            // total accordingly
 
-                long taxes = value(t.getUnitSum(Unit.Type.TAX).getAmount(), weight);
-                long amount = value(t.getAmount(), weight);
+            long taxes = value(t.getUnitSum(Unit.Type.TAX).getAmount(), weight);
+            long amount = value(t.getAmount(), weight);
 
-                pseudo.setAmount(pseudo.getType() == PortfolioTransaction.Type.DELIVERY_INBOUND ? amount - taxes
-                                : amount + taxes);
+            pseudo.setAmount(pseudo.getType() == PortfolioTransaction.Type.DELIVERY_INBOUND ? amount - taxes
+                            : amount + taxes);
 
-                // copy all units (except for taxes) over to the pseudo
-                // transaction
-                t.getUnits().filter(u -> u.getType() != Unit.Type.TAX).forEach(u -> pseudo.addUnit(value(u, weight)));
+            // copy all units (except for taxes) over to the pseudo
+            // transaction
+            t.getUnits().filter(u -> u.getType() != Unit.Type.TAX).forEach(u -> pseudo.addUnit(value(u, weight)));
 
-                pseudoPortfolio.addTransaction(pseudo);
-            }
+            pseudoPortfolio.addTransaction(pseudo);
         }
 
-        for (Account a : client.getAccounts())
+        for (AccountTransaction t : balances.getTransactions(security))
         {
-            for (AccountTransaction t : a.getTransactions())
+            switch (t.getType())
             {
-                if (security.equals(t.getSecurity()))
-                {
-                    switch (t.getType())
-                    {
-                        case DIVIDENDS:
-                            long amount = value(t.getAmount(), weight);
-                            pseudoAccount.addTransaction(new AccountTransaction(t.getDate(), t.getCurrencyCode(),
-                                            amount, t.getSecurity(), t.getType()));
-                            pseudoAccount.addTransaction(new AccountTransaction(t.getDate(), t.getCurrencyCode(),
-                                            amount, t.getSecurity(), AccountTransaction.Type.REMOVAL));
-                            break;
-                        case TAX_REFUND:
-                            // ignore taxes when calculating performance of
-                            // securities
-                        case BUY:
-                        case TRANSFER_IN:
-                        case SELL:
-                        case TRANSFER_OUT:
-                        case DEPOSIT:
-                        case REMOVAL:
-                        case INTEREST:
-                        case TAXES:
-                        case FEES:
-                            // do nothing
-                            break;
-                        default:
-                            throw new UnsupportedOperationException();
+                case DIVIDENDS:
+                    long amount = value(t.getAmount(), weight);
+                    pseudoAccount.addTransaction(new AccountTransaction(t.getDate(), t.getCurrencyCode(), amount,
+                                    t.getSecurity(), t.getType()));
+                    pseudoAccount.addTransaction(new AccountTransaction(t.getDate(), t.getCurrencyCode(), amount,
+                                    t.getSecurity(), AccountTransaction.Type.REMOVAL));
+                    break;
+                case TAX_REFUND:
+                    // ignore taxes when calculating performance of
+                    // securities
+                case BUY:
+                case TRANSFER_IN:
+                case SELL:
+                case TRANSFER_OUT:
+                case DEPOSIT:
+                case REMOVAL:
+                case INTEREST:
+                case TAXES:
+                case FEES:
+                    // do nothing
+                    break;
+                default:
+                    throw new UnsupportedOperationException();
 
-                    }
-                }
             }
         }
     }
@@ -12,7 +12,6 @@ import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Portfolio;
 import name.abuchen.portfolio.model.Transaction.Unit;
 import name.abuchen.portfolio.money.CurrencyConverter;
-import name.abuchen.portfolio.money.Money;
 import name.abuchen.portfolio.util.Dates;
 import name.abuchen.portfolio.util.Interval;
 
@@ -53,24 +52,22 @@ import name.abuchen.portfolio.util.Interval;
         dividends = new long[size];
         interest = new long[size];
 
-        collectTransferalsAndTaxes(size, interval);
+        collectTransferalsAndTaxes(interval);
+
+        for (int ii = 0; ii < size; ii++)
+            dates[ii] = interval.getStart().plusDays(ii);
+
+        calculateTotals();
 
         // first value = reference value
-        dates[0] = interval.getStart();
         delta[0] = 0;
         accumulated[0] = 0;
-        ClientSnapshot snapshot = ClientSnapshot.create(getClient(), getCurrencyConverter(), dates[0]);
-        long valuation = totals[0] = snapshot.getMonetaryAssets().getAmount();
+        long valuation = totals[0];
 
         // calculate series
-        int index = 1;
-        LocalDate date = interval.getStart().plusDays(1);
-        while (date.compareTo(interval.getEnd()) <= 0)
+        for (int index = 1; index < size; index++)
         {
-            dates[index] = date;
-
-            snapshot = ClientSnapshot.create(getClient(), getCurrencyConverter(), dates[index]);
-            long thisValuation = totals[index] = snapshot.getMonetaryAssets().getAmount();
+            long thisValuation = totals[index];
             long thisDelta = thisValuation - transferals[index] - valuation;
 
             if (valuation == 0)
@@ -83,7 +80,8 @@ import name.abuchen.portfolio.util.Interval;
                         delta[index] = (double) thisDelta / (double) transferals[index];
                     else
                         warnings.add(new RuntimeException(MessageFormat.format(Messages.MsgDeltaWithoutAssets,
-                                        thisDelta, date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)))));
+                                        thisDelta, dates[index].format(
+                                                        DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)))));
                 }
             }
             else
@@ -93,13 +91,28 @@ import name.abuchen.portfolio.util.Interval;
 
             accumulated[index] = ((accumulated[index - 1] + 1) * (delta[index] + 1)) - 1;
 
-            date = date.plusDays(1);
             valuation = thisValuation;
-            index++;
         }
     }
 
-    private void addValue(long[] array, String currencyCode, long value, Interval interval, LocalDate time)
+    /**
+     * Calculates the valuation of each date.
+     */
+    /* package */void calculateTotals()
+    {
+        // sort transactions once and apply them day by day instead of
+        // creating a full client snapshot for every date. The valuations of
+        // the days are independent of each other and are calculated in
+        // parallel segments.
+        IncrementalValuation valuations = new IncrementalValuation(getClient(), getCurrencyConverter());
+        calculateInSegments(totals.length, (from, to) -> {
+            IncrementalValuation segment = new IncrementalValuation(valuations);
+            for (int ii = from; ii < to; ii++)
+                totals[ii] = segment.valueAt(dates[ii]);
+        });
+    }
+
+    /* package */void addValue(long[] array, String currencyCode, long value, Interval interval, LocalDate time)
     {
         if (value == 0)
             return;
@@ -107,46 +120,43 @@ import name.abuchen.portfolio.util.Interval;
         int ii = Dates.daysBetween(interval.getStart(), time);
 
         if (!currencyCode.equals(getCurrencyConverter().getTermCurrency()))
-            value = getCurrencyConverter().convert(time, Money.of(currencyCode, value)).getAmount();
+            value = getCurrencyConverter().convert(time, currencyCode, value);
 
         array[ii] += value;
     }
 
-    private void collectTransferalsAndTaxes(int size, Interval interval)
+    /* package */void collectTransferalsAndTaxes(Interval interval)
     {
+        AccountBalances balances = AccountBalances.of(getClient());
+
         for (Account account : getClient().getAccounts())
         {
-            account.getTransactions()
-                            .stream()
-                            .filter(t -> !t.getDate().isBefore(interval.getStart())
-                                            && !t.getDate().isAfter(interval.getEnd()))
-                            .forEach(t -> {
-                                switch (t.getType())
-                                {
-                                    case DEPOSIT:
-                                        addValue(transferals, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case REMOVAL:
-                                        addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval,
-                                                        t.getDate());
-                                        break;
-                                    case TAXES:
-                                        addValue(taxes, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case TAX_REFUND:
-                                        addValue(taxes, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case DIVIDENDS:
-                                        addValue(dividends, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    case INTEREST:
-                                        addValue(interest, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
-                                        break;
-                                    default:
-                                        // do nothing
-                                        break;
-                                }
-                            });
+            balances.getTransactions(account, interval.getStart(), interval.getEnd()).forEach(t -> {
+                switch (t.getType())
+                {
+                    case DEPOSIT:
+                        addValue(transferals, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                        break;
+                    case REMOVAL:
+                        addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+                        break;
+                    case TAXES:
+                        addValue(taxes, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                        break;
+                    case TAX_REFUND:
+                        addValue(taxes, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+                        break;
+                    case DIVIDENDS:
+                        addValue(dividends, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                        break;
+                    case INTEREST:
+                        addValue(interest, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+                        break;
+                    default:
+                        // do nothing
+                        break;
+                }
+            });
 
         }
 
@@ -27,11 +27,13 @@ public class ClientSnapshot
     {
         ClientSnapshot snapshot = new ClientSnapshot(client, converter, date);
 
+        AccountBalances balances = AccountBalances.of(client);
         for (Account account : client.getAccounts())
-            snapshot.accounts.add(AccountSnapshot.create(account, converter, date));
+            snapshot.accounts.add(AccountSnapshot.create(account, converter, date, balances));
 
+        HoldingsLedger ledger = HoldingsLedger.of(client);
         for (Portfolio portfolio : client.getPortfolios())
-            snapshot.portfolios.add(PortfolioSnapshot.create(portfolio, converter, date));
+            snapshot.portfolios.add(PortfolioSnapshot.create(portfolio, converter, date, ledger));
 
         return snapshot;
     }
@@ -0,0 +1,255 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.Transaction;
+
+/**
+ * Keeps, for each portfolio and security, the transactions sorted by date and
+ * the number of shares held after each of them. The number of shares held at
+ * any given date is then a binary search instead of a scan over all
+ * transactions of the portfolio.
+ * <p/>
+ * The ledger of a client is built once per {@link Client#getRevision()
+ * revision} of the client. Callers modifying transactions must therefore mark
+ * the client dirty (which the UI does anyway).
+ */
+public final class HoldingsLedger
+{
+    private static final class Holding
+    {
+        private final List<PortfolioTransaction> transactions;
+        private final long[] epochDays;
+        private final long[] shares;
+
+        private Holding(List<PortfolioTransaction> transactions)
+        {
+            transactions.sort(new Transaction.ByDate());
+
+            this.transactions = transactions;
+            this.epochDays = new long[transactions.size()];
+            this.shares = new long[transactions.size()];
+
+            long held = 0;
+            for (int ii = 0; ii < epochDays.length; ii++)
+            {
+                PortfolioTransaction t = transactions.get(ii);
+                held += signedShares(t);
+                epochDays[ii] = t.getDate().toEpochDay();
+                shares[ii] = held;
+            }
+        }
+
+        /**
+         * Returns the number of transactions booked on or before the given
+         * date.
+         */
+        private int count(LocalDate date)
+        {
+            long day = date.toEpochDay();
+
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high)
+            {
+                int mid = (low + high) >>> 1;
+                if (epochDays[mid] <= day)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+
+        private long getShares(LocalDate date)
+        {
+            int count = count(date);
+            return count == 0 ? 0 : shares[count - 1];
+        }
+
+        private List<PortfolioTransaction> getTransactions(LocalDate date)
+        {
+            return transactions.subList(0, count(date));
+        }
+    }
+
+    private static final Map<Client, HoldingsLedger> CACHE = new WeakHashMap<>();
+
+    private final long revision;
+    private final int size;
+    private final Map<Portfolio, Map<Security, Holding>> portfolios = new LinkedHashMap<>();
+
+    private HoldingsLedger(long revision, int size)
+    {
+        this.revision = revision;
+        this.size = size;
+    }
+
+    /**
+     * Returns the holdings ledger for the given client. The ledger is cached
+     * and only rebuilt if the client has been modified.
+     */
+    public static HoldingsLedger of(Client client)
+    {
+        synchronized (CACHE)
+        {
+            HoldingsLedger ledger = CACHE.get(client);
+
+            if (ledger == null || ledger.revision != client.getRevision() || ledger.size != size(client))
+            {
+                ledger = build(client.getRevision(), client.getPortfolios());
+                CACHE.put(client, ledger);
+            }
+
+            return ledger;
+        }
+    }
+
+    /**
+     * Builds a (not cached) ledger for the given portfolios.
+     */
+    public static HoldingsLedger of(List<Portfolio> portfolios)
+    {
+        return build(-1, portfolios);
+    }
+
+    private static HoldingsLedger build(long revision, List<Portfolio> portfolios)
+    {
+        HoldingsLedger ledger = new HoldingsLedger(revision, size(portfolios));
+
+        for (Portfolio portfolio : portfolios)
+        {
+            Map<Security, List<PortfolioTransaction>> security2transactions = new LinkedHashMap<>();
+            for (PortfolioTransaction t : portfolio.getTransactions())
+                security2transactions.computeIfAbsent(t.getSecurity(), s -> new ArrayList<>()).add(t);
+
+            Map<Security, Holding> holdings = new LinkedHashMap<>();
+            security2transactions.forEach((security, transactions) -> holdings.put(security, new Holding(transactions)));
+            ledger.portfolios.put(portfolio, holdings);
+        }
+
+        return ledger;
+    }
+
+    private static int size(Client client)
+    {
+        return size(client.getPortfolios());
+    }
+
+    private static int size(List<Portfolio> portfolios)
+    {
+        int size = 0;
+        for (Portfolio portfolio : portfolios)
+            size += portfolio.getTransactions().size();
+        return size;
+    }
+
+    /* package */static long signedShares(PortfolioTransaction t)
+    {
+        switch (t.getType())
+        {
+            case BUY:
+            case TRANSFER_IN:
+            case DELIVERY_INBOUND:
+                return t.getShares();
+            case SELL:
+            case TRANSFER_OUT:
+            case DELIVERY_OUTBOUND:
+                return -t.getShares();
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Returns true if the ledger contains the transactions of the given
+     * portfolio.
+     */
+    public boolean contains(Portfolio portfolio)
+    {
+        return portfolios.containsKey(portfolio);
+    }
+
+    /**
+     * Returns the securities for which the portfolio has transactions (at any
+     * point in time).
+     */
+    public Set<Security> getSecurities(Portfolio portfolio)
+    {
+        Map<Security, Holding> holdings = portfolios.get(portfolio);
+        return holdings != null ? Collections.unmodifiableSet(holdings.keySet()) : Collections.emptySet();
+    }
+
+    /**
+     * Returns the number of shares of the security held in the portfolio at
+     * the end of the given date.
+     */
+    public long getShares(Portfolio portfolio, Security security, LocalDate date)
+    {
+        Map<Security, Holding> holdings = portfolios.get(portfolio);
+        if (holdings == null)
+            return 0;
+
+        Holding holding = holdings.get(security);
+        return holding != null ? holding.getShares(date) : 0;
+    }
+
+    /**
+     * Returns the number of shares of the security held in all portfolios at
+     * the end of the given date.
+     */
+    public long getShares(Security security, LocalDate date)
+    {
+        long shares = 0;
+        for (Map<Security, Holding> holdings : portfolios.values())
+        {
+            Holding holding = holdings.get(security);
+            if (holding != null)
+                shares += holding.getShares(date);
+        }
+        return shares;
+    }
+
+    /**
+     * Returns the transactions of the security in the portfolio booked on or
+     * before the given date, sorted by date.
+     */
+    public List<PortfolioTransaction> getTransactions(Portfolio portfolio, Security security, LocalDate date)
+    {
+        Map<Security, Holding> holdings = portfolios.get(portfolio);
+        if (holdings == null)
+            return Collections.emptyList();
+
+        Holding holding = holdings.get(security);
+        return holding != null ? Collections.unmodifiableList(holding.getTransactions(date))
+                        : Collections.emptyList();
+    }
+
+    /**
+     * Returns the transactions of the security in all portfolios, sorted by
+     * date.
+     */
+    public List<PortfolioTransaction> getTransactions(Security security)
+    {
+        List<PortfolioTransaction> answer = new ArrayList<>();
+        for (Map<Security, Holding> holdings : portfolios.values())
+        {
+            Holding holding = holdings.get(security);
+            if (holding != null)
+                answer.addAll(holding.transactions);
+        }
+        answer.sort(new Transaction.ByDate());
+        return answer;
+    }
+}
@@ -0,0 +1,173 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.PriceCursor;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+/**
+ * Values a client day by day without creating a {@link ClientSnapshot} for
+ * every date. All account and portfolio transactions are sorted once. While
+ * walking the dates in ascending order, the transactions of each day are
+ * applied to running account balances and security holdings. The valuation of
+ * a date is identical to {@link ClientSnapshot#getMonetaryAssets()} for the
+ * same date.
+ * <p/>
+ * Instances are not thread-safe. To value several date ranges in parallel,
+ * create a copy per range which shares the sorted transactions.
+ */
+/* package */class IncrementalValuation
+{
+    private static final class Change
+    {
+        private final LocalDate date;
+        private final int index;
+        private final long delta;
+
+        private Change(LocalDate date, int index, long delta)
+        {
+            this.date = date;
+            this.index = index;
+            this.delta = delta;
+        }
+    }
+
+    private static final Comparator<Change> BY_DATE = (c1, c2) -> c1.date.compareTo(c2.date);
+
+    private final CurrencyConverter converter;
+
+    private final Account[] accounts;
+    private final long[] balances;
+    private final Change[] cashChanges;
+    private int nextCashChange = 0;
+
+    private final Security[] securities;
+    private final PriceCursor[] prices;
+    private final long[] shares;
+    private final Change[] shareChanges;
+    private int nextShareChange = 0;
+
+    private LocalDate current;
+
+    /* package */IncrementalValuation(Client client, CurrencyConverter converter)
+    {
+        this.converter = converter;
+
+        List<Account> clientAccounts = client.getAccounts();
+        this.accounts = clientAccounts.toArray(new Account[clientAccounts.size()]);
+        this.balances = new long[accounts.length];
+
+        List<Change> cash = new ArrayList<>();
+        for (int ii = 0; ii < accounts.length; ii++)
+        {
+            for (AccountTransaction t : accounts[ii].getTransactions())
+                cash.add(new Change(t.getDate(), ii, AccountBalances.signedAmount(t)));
+        }
+        cash.sort(BY_DATE);
+        this.cashChanges = cash.toArray(new Change[cash.size()]);
+
+        // shares are held per security across all portfolios because the
+        // client valuation is based on the joint portfolio
+        Map<Security, Integer> security2index = new HashMap<>();
+        List<Change> holdings = new ArrayList<>();
+        for (Portfolio portfolio : client.getPortfolios())
+        {
+            for (PortfolioTransaction t : portfolio.getTransactions())
+            {
+                Integer index = security2index.computeIfAbsent(t.getSecurity(), s -> security2index.size());
+                holdings.add(new Change(t.getDate(), index, HoldingsLedger.signedShares(t)));
+            }
+        }
+        holdings.sort(BY_DATE);
+        this.shareChanges = holdings.toArray(new Change[holdings.size()]);
+
+        this.securities = new Security[security2index.size()];
+        security2index.forEach((security, index) -> securities[index] = security);
+        this.prices = priceCursors(securities);
+        this.shares = new long[securities.length];
+    }
+
+    /**
+     * Creates a valuation which shares the sorted transactions with the given
+     * valuation but starts again at the first transaction.
+     */
+    /* package */IncrementalValuation(IncrementalValuation other)
+    {
+        this.converter = other.converter;
+        this.accounts = other.accounts;
+        this.balances = new long[other.accounts.length];
+        this.cashChanges = other.cashChanges;
+        this.securities = other.securities;
+        this.prices = priceCursors(other.securities);
+        this.shares = new long[other.securities.length];
+        this.shareChanges = other.shareChanges;
+    }
+
+    private static PriceCursor[] priceCursors(Security[] securities)
+    {
+        PriceCursor[] answer = new PriceCursor[securities.length];
+        for (int ii = 0; ii < securities.length; ii++)
+            answer[ii] = securities[ii].priceCursor();
+        return answer;
+    }
+
+    /**
+     * Returns the valuation of the client at the given date in the term
+     * currency of the converter. Dates must be passed in ascending order.
+     */
+    /* package */long valueAt(LocalDate date)
+    {
+        if (current != null && date.isBefore(current))
+            throw new IllegalArgumentException(date + " < " + current); //$NON-NLS-1$
+        current = date;
+
+        while (nextCashChange < cashChanges.length && !cashChanges[nextCashChange].date.isAfter(date))
+        {
+            Change change = cashChanges[nextCashChange++];
+            balances[change.index] += change.delta;
+        }
+
+        while (nextShareChange < shareChanges.length && !shareChanges[nextShareChange].date.isAfter(date))
+        {
+            Change change = shareChanges[nextShareChange++];
+            shares[change.index] += change.delta;
+        }
+
+        long total = 0;
+
+        for (int ii = 0; ii < accounts.length; ii++)
+        {
+            if (balances[ii] != 0)
+                total += convert(date, accounts[ii].getCurrencyCode(), balances[ii]);
+        }
+
+        for (int ii = 0; ii < securities.length; ii++)
+        {
+            if (shares[ii] == 0)
+                continue;
+
+            long price = prices[ii].advanceTo(date);
+            long value = SecurityPosition.calculateValue(shares[ii], price);
+            if (value != 0)
+                total += convert(date, securities[ii].getCurrencyCode(), value);
+        }
+
+        return total;
+    }
+
+    private long convert(LocalDate date, String currencyCode, long amount)
+    {
+        return converter.convert(date, currencyCode, amount);
+    }
+}
@@ -0,0 +1,137 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import name.abuchen.portfolio.model.AccountTransaction;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.PriceCursor;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.model.Transaction.Unit;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.util.Interval;
+
+/**
+ * Calculates the performance of an investment into a single security. The
+ * result is identical to a {@link ClassificationIndex} with the security
+ * assigned at 100%, but the index is calculated directly from the transactions
+ * of the security instead of copying them into a pseudo client: purchases and
+ * sales are treated as deliveries (without taxes) and dividends are paid out
+ * immediately.
+ */
+/* package */class InvestmentIndex extends ClientIndex
+{
+    private final Security security;
+
+    private List<PortfolioTransaction> transactions = Collections.emptyList();
+    private long[] epochDays = new long[0];
+    private long[] shares = new long[0];
+
+    /* package */InvestmentIndex(Client client, CurrencyConverter converter, Security security,
+                    ReportingPeriod reportInterval)
+    {
+        super(client, converter, reportInterval);
+        this.security = security;
+
+        // if a security has no currency code, it must be an index and must not
+        // have transactions after all
+        if (security.getCurrencyCode() != null)
+        {
+            this.transactions = HoldingsLedger.of(client).getTransactions(security);
+            this.epochDays = new long[transactions.size()];
+            this.shares = new long[transactions.size()];
+
+            long held = 0;
+            for (int ii = 0; ii < epochDays.length; ii++)
+            {
+                PortfolioTransaction t = transactions.get(ii);
+                held += HoldingsLedger.signedShares(t);
+                epochDays[ii] = t.getDate().toEpochDay();
+                shares[ii] = held;
+            }
+        }
+    }
+
+    @Override
+    /* package */void collectTransferalsAndTaxes(Interval interval)
+    {
+        if (security.getCurrencyCode() == null)
+            return;
+
+        for (PortfolioTransaction t : transactions)
+        {
+            if (t.getDate().isBefore(interval.getStart()) || t.getDate().isAfter(interval.getEnd()))
+                continue;
+
+            long taxes = t.getUnitSum(Unit.Type.TAX).getAmount();
+
+            switch (t.getType())
+            {
+                case BUY:
+                case TRANSFER_IN:
+                case DELIVERY_INBOUND:
+                    addValue(transferals, t.getCurrencyCode(), t.getAmount() - taxes, interval, t.getDate());
+                    break;
+                case SELL:
+                case TRANSFER_OUT:
+                case DELIVERY_OUTBOUND:
+                    addValue(transferals, t.getCurrencyCode(), -(t.getAmount() + taxes), interval, t.getDate());
+                    break;
+                default:
+                    throw new UnsupportedOperationException();
+            }
+        }
+
+        // dividends are removed from the investment right away
+        for (AccountTransaction t : AccountBalances.of(getClient()).getTransactions(security))
+        {
+            if (t.getType() != AccountTransaction.Type.DIVIDENDS || t.getDate().isBefore(interval.getStart())
+                            || t.getDate().isAfter(interval.getEnd()))
+                continue;
+
+            addValue(dividends, t.getCurrencyCode(), t.getAmount(), interval, t.getDate());
+            addValue(transferals, t.getCurrencyCode(), -t.getAmount(), interval, t.getDate());
+        }
+    }
+
+    @Override
+    /* package */void calculateTotals()
+    {
+        if (security.getCurrencyCode() == null)
+            return;
+
+        calculateInSegments(totals.length, (from, to) -> {
+            PriceCursor cursor = security.priceCursor();
+            for (int ii = from; ii < to; ii++)
+                totals[ii] = valueAt(cursor, dates[ii]);
+        });
+    }
+
+    private long valueAt(PriceCursor cursor, LocalDate date)
+    {
+        long day = date.toEpochDay();
+
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] <= day)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        long held = low == 0 ? 0 : shares[low - 1];
+        if (held == 0)
+            return 0;
+
+        long value = SecurityPosition.calculateValue(held, cursor.advanceTo(date));
+        if (value == 0)
+            return 0;
+
+        return getCurrencyConverter().convert(date, security.getCurrencyCode(), value);
+    }
+}
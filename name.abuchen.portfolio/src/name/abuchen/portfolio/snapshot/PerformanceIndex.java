@@ -7,8 +7,11 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Predicate;
 
 import org.apache.commons.csv.CSVPrinter;
@@ -30,6 +33,23 @@ import name.abuchen.portfolio.util.TradeCalendar;
 
 public class PerformanceIndex
 {
+    /**
+     * Callback to calculate the values of the days [from, to) of the index.
+     */
+    @FunctionalInterface
+    /* package */interface Segment
+    {
+        void calculate(int from, int to);
+    }
+
+    /**
+     * Minimum number of days per segment. Smaller segments do not pay off the
+     * setup costs of the valuation.
+     */
+    private static final int MIN_SEGMENT_SIZE = 90;
+
+    private static volatile int parallelism = 0;
+
     private final Client client;
     private final CurrencyConverter converter;
     private final ReportingPeriod reportInterval;
@@ -89,9 +109,9 @@ public class PerformanceIndex
     public static PerformanceIndex forInvestment(Client client, CurrencyConverter converter, Security security,
                     ReportingPeriod reportInterval, List<Exception> warnings)
     {
-        Classification classification = new Classification(null, null);
-        classification.addAssignment(new Assignment(security));
-        return forClassification(client, converter, classification, reportInterval, warnings);
+        InvestmentIndex index = new InvestmentIndex(client, converter, security, reportInterval);
+        index.calculate(warnings);
+        return index;
     }
 
     public static PerformanceIndex forSecurity(PerformanceIndex clientIndex, Security security, List<Exception> warnings)
@@ -110,6 +130,64 @@ public class PerformanceIndex
         return index;
     }
 
+    /**
+     * Sets the maximum number of segments which are valued in parallel (also
+     * used for the records of the security performance snapshot). A value of
+     * zero (the default) uses the parallelism of the common fork/join pool, a
+     * value of one calculates sequentially.
+     */
+    public static void setParallelism(int parallelism)
+    {
+        PerformanceIndex.parallelism = Math.max(0, parallelism);
+    }
+
+    public static int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Returns the maximum number of tasks to calculate in parallel.
+     */
+    public static int getEffectiveParallelism()
+    {
+        return parallelism > 0 ? parallelism : ForkJoinPool.getCommonPoolParallelism();
+    }
+
+    /**
+     * Splits the days [0, size) into segments and calculates them on the
+     * common fork/join pool. Segments must be independent of each other.
+     */
+    /* package */static void calculateInSegments(int size, Segment segment)
+    {
+        calculateInSegments(size, MIN_SEGMENT_SIZE, segment);
+    }
+
+    /**
+     * Splits the items [0, size) into segments of at least minSegmentSize
+     * items and calculates them on the common fork/join pool.
+     */
+    /* package */static void calculateInSegments(int size, int minSegmentSize, Segment segment)
+    {
+        int segments = Math.min(getEffectiveParallelism(), size / Math.max(1, minSegmentSize));
+
+        if (segments <= 1)
+        {
+            segment.calculate(0, size);
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int ii = 0; ii < segments; ii++)
+        {
+            int from = (int) ((long) size * ii / segments);
+            int to = (int) ((long) size * (ii + 1) / segments);
+            tasks.add(ForkJoinTask.adapt(() -> segment.calculate(from, to)));
+        }
+
+        ForkJoinTask.invokeAll(tasks);
+    }
+
     public Client getClient()
     {
         return client;
@@ -1,6 +1,10 @@
 package name.abuchen.portfolio.snapshot;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,6 +28,34 @@ public class PortfolioSnapshot
 
     public static PortfolioSnapshot create(Portfolio portfolio, CurrencyConverter converter, LocalDate date)
     {
+        return create(portfolio, converter, date, null);
+    }
+
+    /**
+     * Creates a snapshot of the portfolio using the shares and transactions
+     * recorded in the given holdings ledger. If the ledger is null or does
+     * not contain the portfolio, the transactions are grouped by security.
+     */
+    public static PortfolioSnapshot create(Portfolio portfolio, CurrencyConverter converter, LocalDate date,
+                    HoldingsLedger ledger)
+    {
+        if (ledger != null && ledger.contains(portfolio))
+        {
+            List<SecurityPosition> positions = new ArrayList<>();
+
+            for (Security security : ledger.getSecurities(portfolio))
+            {
+                long shares = ledger.getShares(portfolio, security, date);
+                if (shares == 0)
+                    continue;
+
+                positions.add(new SecurityPosition(security, converter, security.getSecurityPrice(date), shares,
+                                ledger.getTransactions(portfolio, security, date)));
+            }
+
+            return new PortfolioSnapshot(portfolio, converter, date, positions);
+        }
+
         List<SecurityPosition> positions = portfolio
                         .getTransactions()
                         .stream()
@@ -39,13 +71,82 @@ public class PortfolioSnapshot
         return new PortfolioSnapshot(portfolio, converter, date, positions);
     }
 
+    private static final class TransactionsBySecurity
+    {
+        private final List<Portfolio> portfolios;
+        private final LocalDate date;
+        private Map<Security, List<PortfolioTransaction>> map;
+
+        private TransactionsBySecurity(List<Portfolio> portfolios, LocalDate date)
+        {
+            this.portfolios = portfolios;
+            this.date = date;
+        }
+
+        private synchronized List<PortfolioTransaction> get(Security security)
+        {
+            if (map == null)
+            {
+                map = new HashMap<>();
+                for (Portfolio portfolio : portfolios)
+                {
+                    for (PortfolioTransaction t : portfolio.getTransactions())
+                    {
+                        if (!t.getDate().isAfter(date))
+                            map.computeIfAbsent(t.getSecurity(), s -> new ArrayList<>()).add(t);
+                    }
+                }
+            }
+            return map.getOrDefault(security, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Merges the snapshots into a joint portfolio. The positions are combined
+     * by security without copying the transactions. The transactions (needed
+     * only to calculate purchase values) are collected when requested.
+     */
     public static PortfolioSnapshot merge(List<PortfolioSnapshot> snapshots, CurrencyConverter converter)
     {
         if (snapshots.isEmpty())
             throw new RuntimeException("Error: PortfolioSnapshots to be merged must not be empty"); //$NON-NLS-1$
 
+        List<Portfolio> sources = snapshots.stream().map(PortfolioSnapshot::getSource).collect(Collectors.toList());
+        CurrencyConverter snapshotConverter = snapshots.get(0).getCurrencyConverter();
+        LocalDate date = snapshots.get(0).getTime();
+
         Portfolio portfolio = new Portfolio()
         {
+            // the snapshot is shared via the snapshot cache, hence the list is
+            // published fully built
+            private volatile List<PortfolioTransaction> transactions;
+
+            @Override
+            public List<PortfolioTransaction> getTransactions()
+            {
+                List<PortfolioTransaction> answer = transactions;
+                if (answer == null)
+                {
+                    List<PortfolioTransaction> joint = new ArrayList<>();
+                    sources.forEach(p -> joint.addAll(p.getTransactions()));
+                    answer = Collections.unmodifiableList(joint);
+                    transactions = answer;
+                }
+                return answer;
+            }
+
+            @Override
+            public void addTransaction(PortfolioTransaction transaction)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void addAllTransaction(List<PortfolioTransaction> transactions)
+            {
+                throw new UnsupportedOperationException();
+            }
+
             @Override
             public void shallowDeleteTransaction(PortfolioTransaction transaction, Client client)
             {
@@ -63,9 +164,26 @@ public class PortfolioSnapshot
         referenceAccount.setCurrencyCode(converter.getTermCurrency());
         portfolio.setReferenceAccount(referenceAccount);
 
-        snapshots.forEach(s -> portfolio.addAllTransaction(s.getSource().getTransactions()));
-
-        return create(portfolio, snapshots.get(0).getCurrencyConverter(), snapshots.get(0).getTime());
+        Map<Security, List<SecurityPosition>> security2positions = new LinkedHashMap<>();
+        for (PortfolioSnapshot snapshot : snapshots)
+        {
+            for (SecurityPosition position : snapshot.getPositions())
+                security2positions.computeIfAbsent(position.getSecurity(), s -> new ArrayList<>()).add(position);
+        }
+
+        // transactions of all portfolios grouped by security are shared by
+        // all merged positions and only collected once if requested
+        TransactionsBySecurity security2transactions = new TransactionsBySecurity(sources, date);
+
+        List<SecurityPosition> positions = new ArrayList<>();
+        security2positions.forEach((security, list) -> {
+            long shares = list.stream().mapToLong(SecurityPosition::getShares).sum();
+            if (shares != 0)
+                positions.add(new SecurityPosition(security, snapshotConverter, list.get(0).getPrice(), shares,
+                                () -> security2transactions.get(security)));
+        });
+
+        return new PortfolioSnapshot(portfolio, snapshotConverter, date, positions);
     }
 
     // //////////////////////////////////////////////////////////////
@@ -0,0 +1,189 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import name.abuchen.portfolio.model.PriceCursor;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.util.Interval;
+
+/**
+ * Quotes of a set of securities for every day of an interval (start and end
+ * date included) stored in one flat array. Days without a quote carry the
+ * previous quote forward, i.e. the value of a day is identical to
+ * {@link Security#getSecurityPrice(LocalDate)}.
+ * <p/>
+ * The values of one security are stored consecutively: the value of security
+ * <em>s</em> on day <em>d</em> is at index <em>s * days + d</em> of
+ * {@link #getValues()}.
+ */
+public final class PriceMatrix
+{
+    /**
+     * Minimum number of values filled per segment. Smaller segments do not pay
+     * off the costs of calculating them in parallel.
+     */
+    private static final int MIN_VALUES_PER_SEGMENT = 10000;
+
+    public static final class Builder
+    {
+        private final Interval interval;
+        private final Set<Security> securities = new LinkedHashSet<>();
+        private CurrencyConverter converter;
+
+        public Builder(Interval interval)
+        {
+            this.interval = interval;
+        }
+
+        public Builder add(Security security)
+        {
+            securities.add(security);
+            return this;
+        }
+
+        public Builder addAll(Collection<Security> securities)
+        {
+            securities.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * Converts the quotes into the term currency of the given converter
+         * using the exchange rate of each day. Securities without currency
+         * (indices) are not converted.
+         */
+        public Builder convertWith(CurrencyConverter converter)
+        {
+            this.converter = converter;
+            return this;
+        }
+
+        public PriceMatrix build()
+        {
+            PriceMatrix matrix = new PriceMatrix(interval, new ArrayList<>(securities), converter);
+
+            // segments are rows (securities), sized by the number of values
+            int minSegmentSize = Math.max(1, MIN_VALUES_PER_SEGMENT / matrix.days);
+            PerformanceIndex.calculateInSegments(securities.size(), minSegmentSize, (from, to) -> {
+                for (int ii = from; ii < to; ii++)
+                    matrix.fill(ii);
+            });
+
+            return matrix;
+        }
+    }
+
+    private final LocalDate start;
+    private final int days;
+    private final Security[] securities;
+    private final Map<Security, Integer> security2index = new HashMap<>();
+    private final CurrencyConverter converter;
+    private final long[] values;
+    private final int[] epochDays;
+
+    private PriceMatrix(Interval interval, List<Security> securities, CurrencyConverter converter)
+    {
+        this.start = interval.getStart();
+        this.days = (int) interval.getDays() + 1;
+        this.securities = securities.toArray(new Security[securities.size()]);
+        this.converter = converter;
+        this.values = new long[this.securities.length * days];
+        this.epochDays = new int[days];
+
+        for (int ii = 0; ii < days; ii++)
+            epochDays[ii] = (int) start.toEpochDay() + ii;
+
+        for (int ii = 0; ii < this.securities.length; ii++)
+            security2index.put(this.securities[ii], ii);
+    }
+
+    private void fill(int securityIndex)
+    {
+        Security security = securities[securityIndex];
+        boolean convert = converter != null && security.getCurrencyCode() != null
+                        && !security.getCurrencyCode().equals(converter.getTermCurrency());
+
+        PriceCursor cursor = security.priceCursor();
+        long[] prices = new long[days];
+
+        for (int dd = 0; dd < days; dd++)
+            prices[dd] = cursor.advanceTo(start.plusDays(dd));
+
+        if (convert)
+            converter.convert(security.getCurrencyCode(), epochDays, prices, prices);
+
+        System.arraycopy(prices, 0, values, securityIndex * days, days);
+    }
+
+    public LocalDate getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Returns the number of days, i.e. the number of values per security.
+     */
+    public int getDays()
+    {
+        return days;
+    }
+
+    public int getSecurityCount()
+    {
+        return securities.length;
+    }
+
+    public Security getSecurity(int securityIndex)
+    {
+        return securities[securityIndex];
+    }
+
+    /**
+     * Returns the row of the security or -1 if the matrix does not contain
+     * the security.
+     */
+    public int indexOf(Security security)
+    {
+        Integer index = security2index.get(security);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the column of the date or -1 if the date is outside the interval.
+     */
+    public int indexOf(LocalDate date)
+    {
+        long index = date.toEpochDay() - start.toEpochDay();
+        return index >= 0 && index < days ? (int) index : -1;
+    }
+
+    public long getValue(int securityIndex, int dayIndex)
+    {
+        return values[securityIndex * days + dayIndex];
+    }
+
+    public long getValue(Security security, LocalDate date)
+    {
+        int securityIndex = indexOf(security);
+        int dayIndex = indexOf(date);
+        if (securityIndex < 0 || dayIndex < 0)
+            throw new IllegalArgumentException(security + " @ " + date); //$NON-NLS-1$
+        return getValue(securityIndex, dayIndex);
+    }
+
+    /**
+     * Returns the underlying array. It must not be modified.
+     */
+    public long[] getValues()
+    {
+        return values;
+    }
+}
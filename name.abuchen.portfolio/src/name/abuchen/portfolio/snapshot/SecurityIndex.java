@@ -8,7 +8,6 @@ import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.model.SecurityPrice;
 import name.abuchen.portfolio.money.CurrencyConverter;
-import name.abuchen.portfolio.money.Money;
 import name.abuchen.portfolio.util.Dates;
 import name.abuchen.portfolio.util.Interval;
 
@@ -54,15 +53,6 @@ import name.abuchen.portfolio.util.Interval;
             return;
         }
 
-        // needs currency conversion if
-        // a) the currency of the security is not null
-        // (otherwise it is an index)
-        // b) the term currency differs from the currency of the security
-
-        CurrencyConverter converter = security.getCurrencyCode() != null
-                        && !security.getCurrencyCode().equals(clientIndex.getCurrencyConverter().getTermCurrency()) ? clientIndex
-                        .getCurrencyConverter() : null;
-
         dates = new LocalDate[size];
         delta = new double[size];
         accumulated = new double[size];
@@ -72,42 +62,36 @@ import name.abuchen.portfolio.util.Interval;
         final double adjustment = clientIndex.getAccumulatedPercentage()[Dates.daysBetween(actualInterval.getStart(),
                         startDate)];
 
+        for (int ii = 0; ii < size; ii++)
+            dates[ii] = startDate.plusDays(ii);
+
+        // the matrix converts with the rate of the picked date, not the date
+        // of the quote. This could differ for example on weekends. Indices
+        // (securities without currency) are not converted.
+        PriceMatrix matrix = new PriceMatrix.Builder(Interval.of(startDate, endDate)) //
+                        .add(security) //
+                        .convertWith(clientIndex.getCurrencyConverter()) //
+                        .build();
+        System.arraycopy(matrix.getValues(), 0, totals, 0, size);
+
         // first value = reference value
-        dates[0] = startDate;
         delta[0] = 0;
         accumulated[0] = adjustment;
-        long valuation = totals[0] = convert(converter, security, startDate);
+        long valuation = totals[0];
 
         // calculate series
-        int index = 1;
-        LocalDate date = startDate.plusDays(1);
-        while (date.compareTo(endDate) <= 0)
+        for (int index = 1; index < size; index++)
         {
-            dates[index] = date;
-
-            long thisValuation = totals[index] = convert(converter, security, date);
+            long thisValuation = totals[index];
             long thisDelta = thisValuation - valuation;
 
             delta[index] = (double) thisDelta / (double) valuation;
             accumulated[index] = ((accumulated[index - 1] + 1 - adjustment) * (delta[index] + 1)) - 1 + adjustment;
 
-            date = date.plusDays(1);
             valuation = thisValuation;
-            index++;
         }
     }
 
-    private long convert(CurrencyConverter converter, Security security, LocalDate date)
-    {
-        SecurityPrice price = security.getSecurityPrice(date);
-        if (converter == null)
-            return price.getValue();
-
-        // use the picked date for currency conversion, not the date of the
-        // quote. This could differ for example on weekends.
-        return converter.convert(date, Money.of(security.getCurrencyCode(), price.getValue())).getAmount();
-    }
-
     private void initEmpty(PerformanceIndex clientIndex)
     {
         LocalDate startDate = clientIndex.getFirstDataPoint().orElse(clientIndex.getActualInterval().getStart());
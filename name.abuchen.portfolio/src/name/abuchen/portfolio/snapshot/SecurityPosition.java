@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 import name.abuchen.portfolio.model.Classification;
 import name.abuchen.portfolio.model.InvestmentVehicle;
@@ -30,7 +31,7 @@ public class SecurityPosition
         public static Record calculate(CurrencyConverter converter, SecurityPosition position)
         {
             Record answer = new Record();
-            answer.calculatePurchaseValuePrice(converter, answer.filter(position.transactions));
+            answer.calculatePurchaseValuePrice(converter, answer.filter(position.getTransactions()));
             return answer;
         }
 
@@ -131,7 +132,7 @@ public class SecurityPosition
                         }
                         else
                         {
-                            grossAmount = t.getMonetaryAmount().with(converter.at(t.getDate())).getAmount();
+                            grossAmount = converter.convert(t.getDate(), t.getCurrencyCode(), t.getAmount());
                             netAmount = t.getGrossValue().with(converter.at(t.getDate())).getAmount();
                         }
 
@@ -153,14 +154,17 @@ public class SecurityPosition
     private final CurrencyConverter converter;
     private final SecurityPrice price;
     private final long shares;
-    private final List<PortfolioTransaction> transactions;
+    // positions are shared via the snapshot cache and read concurrently,
+    // hence the lazily collected transactions are published via volatile
+    private volatile List<PortfolioTransaction> transactions;
+    private volatile Supplier<List<PortfolioTransaction>> transactionSupplier;
 
     private transient Map<String, Record> currency2record = new HashMap<String, Record>()
     {
         private static final long serialVersionUID = 1L;
 
         @Override
-        public Record get(Object key)
+        public synchronized Record get(Object key)
         {
             return super.computeIfAbsent((String) key,
                             currency -> Record.calculate(converter.with(currency), SecurityPosition.this));
@@ -218,6 +222,62 @@ public class SecurityPosition
         this.transactions = new ArrayList<>(transactions);
     }
 
+    /**
+     * Creates a position with the number of shares already known, for
+     * example, from the {@link HoldingsLedger}.
+     */
+    /* package */SecurityPosition(Security security, CurrencyConverter converter, SecurityPrice price, long shares,
+                    List<PortfolioTransaction> transactions)
+    {
+        Objects.requireNonNull(security);
+        Objects.requireNonNull(converter);
+        Objects.requireNonNull(price);
+
+        this.investment = security;
+        this.converter = converter.with(investment.getCurrencyCode());
+        this.price = price;
+        this.shares = shares;
+        this.transactions = new ArrayList<>(transactions);
+    }
+
+    /**
+     * Creates a position with the number of shares already known whose
+     * transactions are only collected if the purchase value is requested, for
+     * example, when merging positions of multiple portfolios.
+     */
+    /* package */SecurityPosition(Security security, CurrencyConverter converter, SecurityPrice price, long shares,
+                    Supplier<List<PortfolioTransaction>> transactionSupplier)
+    {
+        Objects.requireNonNull(security);
+        Objects.requireNonNull(converter);
+        Objects.requireNonNull(price);
+
+        this.investment = security;
+        this.converter = converter.with(investment.getCurrencyCode());
+        this.price = price;
+        this.shares = shares;
+        this.transactionSupplier = transactionSupplier;
+    }
+
+    private List<PortfolioTransaction> getTransactions()
+    {
+        List<PortfolioTransaction> answer = transactions;
+        if (answer == null)
+        {
+            synchronized (this)
+            {
+                answer = transactions;
+                if (answer == null)
+                {
+                    answer = new ArrayList<>(transactionSupplier.get());
+                    transactions = answer;
+                    transactionSupplier = null;
+                }
+            }
+        }
+        return answer;
+    }
+
     public Security getSecurity()
     {
         return investment instanceof Security ? (Security) investment : null;
@@ -243,8 +303,17 @@ public class SecurityPosition
         if (price == null)
             return Money.of(investment.getCurrencyCode(), 0);
 
-        double marketValue = shares * price.getValue() / Values.Share.divider() / Values.Quote.dividerToMoney();
-        return Money.of(investment.getCurrencyCode(), Math.round(marketValue));
+        return Money.of(investment.getCurrencyCode(), calculateValue(shares, price.getValue()));
+    }
+
+    /**
+     * Returns the market value (in the currency of the quote) of the given
+     * number of shares at the given price.
+     */
+    /* package */static long calculateValue(long shares, long price)
+    {
+        double marketValue = shares * price / Values.Share.divider() / Values.Quote.dividerToMoney();
+        return Math.round(marketValue);
     }
 
     public Money getFIFOPurchasePrice()
@@ -273,9 +342,9 @@ public class SecurityPosition
 
     public static SecurityPosition split(SecurityPosition position, int weight)
     {
-        List<PortfolioTransaction> splitTransactions = new ArrayList<>(position.transactions.size());
+        List<PortfolioTransaction> splitTransactions = new ArrayList<>(position.getTransactions().size());
 
-        for (PortfolioTransaction t : position.transactions)
+        for (PortfolioTransaction t : position.getTransactions())
         {
             PortfolioTransaction t2 = new PortfolioTransaction();
             t2.setDate(t.getDate());
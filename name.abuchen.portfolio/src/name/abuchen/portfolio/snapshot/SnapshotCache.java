@@ -0,0 +1,232 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import javax.inject.Singleton;
+
+import org.eclipse.e4.core.di.annotations.Creatable;
+
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+/**
+ * Caches client snapshots and performance indices which are calculated by
+ * several views for the same client, currency and reporting period. Entries
+ * are keyed by the {@link Client#getRevision() revision} of the client and the
+ * {@link CurrencyConverter#getGeneration() generation} of the exchange rates
+ * and therefore never outdated. Least recently used entries are evicted once the
+ * estimated memory consumption exceeds the limit.
+ */
+@Creatable
+@Singleton
+public class SnapshotCache
+{
+    private enum Type
+    {
+        CLIENT_SNAPSHOT, CLIENT_INDEX, CLIENT_PERFORMANCE_SNAPSHOT
+    }
+
+    private static final class Key
+    {
+        private final Client client;
+        private final long revision;
+        private final long generation;
+        private final String termCurrency;
+        private final Object period;
+        private final LocalDate today;
+        private final Type type;
+
+        private Key(Client client, CurrencyConverter converter, Object period, Type type)
+        {
+            this.client = client;
+            this.revision = client.getRevision();
+            this.generation = converter.getGeneration();
+            this.termCurrency = converter.getTermCurrency();
+            this.period = period;
+            // calculations stop at today's date
+            this.today = LocalDate.now();
+            this.type = type;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(System.identityHashCode(client), revision, generation, termCurrency, period, today, type);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+
+            Key other = (Key) obj;
+            return client == other.client && revision == other.revision && generation == other.generation
+                            && type == other.type
+                            && termCurrency.equals(other.termCurrency) && period.equals(other.period)
+                            && today.equals(other.today);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Object value;
+        private final List<Exception> warnings;
+        private final long size;
+
+        private Entry(Object value, List<Exception> warnings, long size)
+        {
+            this.value = value;
+            this.warnings = warnings;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Default memory limit of 64 MB.
+     */
+    private static final long DEFAULT_LIMIT = 64L * 1024 * 1024;
+
+    /**
+     * Estimated bytes per day of a performance index: the date plus the
+     * values of totals, transferals, taxes, dividends, interest, accumulated
+     * and delta.
+     */
+    private static final long BYTES_PER_DAY = 100;
+
+    /**
+     * Estimated bytes per account or position of a client snapshot.
+     */
+    private static final long BYTES_PER_POSITION = 200;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long limit;
+    private long size = 0;
+
+    public SnapshotCache()
+    {
+        this(DEFAULT_LIMIT);
+    }
+
+    public SnapshotCache(long limit)
+    {
+        this.limit = limit;
+    }
+
+    public ClientSnapshot getClientSnapshot(Client client, CurrencyConverter converter, LocalDate date)
+    {
+        return lookup(new Key(client, converter, date, Type.CLIENT_SNAPSHOT), null,
+                        w -> ClientSnapshot.create(client, converter, date), SnapshotCache::sizeOf);
+    }
+
+    public PerformanceIndex getClientIndex(Client client, CurrencyConverter converter, ReportingPeriod period,
+                    List<Exception> warnings)
+    {
+        return lookup(new Key(client, converter, period, Type.CLIENT_INDEX), warnings,
+                        w -> PerformanceIndex.forClient(client, converter, period, w), SnapshotCache::sizeOf);
+    }
+
+    public ClientPerformanceSnapshot getClientPerformanceSnapshot(Client client, CurrencyConverter converter,
+                    ReportingPeriod period)
+    {
+        return lookup(new Key(client, converter, period, Type.CLIENT_PERFORMANCE_SNAPSHOT), null,
+                        w -> new ClientPerformanceSnapshot(client, converter, period),
+                        s -> sizeOf(s.getStartClientSnapshot()) + sizeOf(s.getEndClientSnapshot())
+                                        + sizeOf(s.getPerformanceIndex()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> T lookup(Key key, List<Exception> warnings, Function<List<Exception>, T> calculation,
+                    ToLongFunction<T> sizeOf)
+    {
+        Entry entry = entries.get(key);
+
+        if (entry == null)
+        {
+            List<Exception> calculationWarnings = new ArrayList<>();
+            T value = calculation.apply(calculationWarnings);
+
+            // entries of older revisions of the client (or calculated with
+            // outdated exchange rates) are never used again
+            remove(k -> k.client == key.client && (k.revision != key.revision || k.generation != key.generation));
+
+            entry = new Entry(value, calculationWarnings, sizeOf.applyAsLong(value));
+            entries.put(key, entry);
+            size += entry.size;
+
+            evict();
+        }
+
+        if (warnings != null)
+            warnings.addAll(entry.warnings);
+
+        return (T) entry.value;
+    }
+
+    private void remove(Predicate<Key> filter)
+    {
+        Iterator<Map.Entry<Key, Entry>> iter = entries.entrySet().iterator();
+        while (iter.hasNext())
+        {
+            Map.Entry<Key, Entry> e = iter.next();
+            if (filter.test(e.getKey()))
+            {
+                size -= e.getValue().size;
+                iter.remove();
+            }
+        }
+    }
+
+    private void evict()
+    {
+        Iterator<Entry> iter = entries.values().iterator();
+        while (size > limit && entries.size() > 1 && iter.hasNext())
+        {
+            size -= iter.next().size;
+            iter.remove();
+        }
+    }
+
+    /**
+     * Removes all cached entries of the given client, for example after the
+     * client has been closed.
+     */
+    public synchronized void invalidate(Client client)
+    {
+        remove(key -> key.client == client);
+    }
+
+    /* package */synchronized int getEntryCount()
+    {
+        return entries.size();
+    }
+
+    /* package */synchronized long getEstimatedSize()
+    {
+        return size;
+    }
+
+    private static long sizeOf(ClientSnapshot snapshot)
+    {
+        long positions = snapshot.getAccounts().size();
+        for (PortfolioSnapshot portfolio : snapshot.getPortfolios())
+            positions += portfolio.getPositions().size();
+        return positions * BYTES_PER_POSITION;
+    }
+
+    private static long sizeOf(PerformanceIndex index)
+    {
+        return index.getDates().length * BYTES_PER_DAY;
+    }
+}
@@ -0,0 +1,123 @@
+package name.abuchen.portfolio.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import name.abuchen.portfolio.model.Account;
+import name.abuchen.portfolio.model.Client;
+import name.abuchen.portfolio.model.InvestmentVehicle;
+import name.abuchen.portfolio.model.Portfolio;
+import name.abuchen.portfolio.model.PortfolioTransaction;
+import name.abuchen.portfolio.model.PriceCursor;
+import name.abuchen.portfolio.model.Security;
+import name.abuchen.portfolio.money.CurrencyConverter;
+
+/**
+ * Calculates the market value of the investment vehicles of a client for an
+ * ascending sequence of dates. Instead of creating a {@link ClientSnapshot}
+ * (with all its positions) for every date, the holdings of the securities are
+ * advanced from one date to the next.
+ * <p/>
+ * The values are identical to the valuation of the asset positions of a client
+ * snapshot: accounts are always reported, securities only if shares are held
+ * in any of the portfolios.
+ */
+public final class VehicleValuationStream
+{
+    @FunctionalInterface
+    public interface Consumer
+    {
+        /**
+         * Called with the market value of the investment vehicle converted
+         * into the term currency.
+         */
+        void accept(InvestmentVehicle vehicle, long value);
+    }
+
+    private static final class Holding
+    {
+        private final Security security;
+        private final List<PortfolioTransaction> transactions;
+        private final PriceCursor prices;
+        private int index = 0;
+        private long shares = 0;
+
+        private Holding(Security security, List<PortfolioTransaction> transactions)
+        {
+            this.security = security;
+            this.transactions = transactions;
+            this.prices = security.priceCursor();
+        }
+
+        private void advanceTo(LocalDate date)
+        {
+            while (index < transactions.size() && !transactions.get(index).getDate().isAfter(date))
+                shares += HoldingsLedger.signedShares(transactions.get(index++));
+        }
+    }
+
+    private final CurrencyConverter converter;
+    private final List<Account> accounts;
+    private final AccountBalances balances;
+    private final List<Holding> holdings = new ArrayList<>();
+
+    private LocalDate current;
+
+    public VehicleValuationStream(Client client, CurrencyConverter converter)
+    {
+        this.converter = converter;
+        this.accounts = client.getAccounts();
+        this.balances = AccountBalances.of(client);
+
+        HoldingsLedger ledger = HoldingsLedger.of(client);
+
+        Set<Security> securities = new LinkedHashSet<>();
+        for (Portfolio portfolio : client.getPortfolios())
+            securities.addAll(ledger.getSecurities(portfolio));
+
+        for (Security security : securities)
+            holdings.add(new Holding(security, ledger.getTransactions(security)));
+    }
+
+    /**
+     * Advances the holdings to the end of the given date and reports the value
+     * of each investment vehicle to the consumer.
+     *
+     * @return total monetary assets at the given date
+     * @throws IllegalArgumentException
+     *             if the date is before the previous date
+     */
+    public long advanceTo(LocalDate date, Consumer consumer)
+    {
+        if (current != null && date.isBefore(current))
+            throw new IllegalArgumentException(date.toString());
+        current = date;
+
+        long total = 0;
+
+        for (Account account : accounts)
+        {
+            long funds = converter.convert(date, account.getCurrencyCode(), balances.getFunds(account, date));
+            consumer.accept(account, funds);
+            total += funds;
+        }
+
+        for (Holding holding : holdings)
+        {
+            holding.advanceTo(date);
+            if (holding.shares == 0)
+                continue;
+
+            Security security = holding.security;
+            long value = SecurityPosition.calculateValue(holding.shares, holding.prices.advanceTo(date));
+            value = converter.convert(date, security.getCurrencyCode(), value);
+            consumer.accept(security, value);
+            total += value;
+        }
+
+        return total;
+    }
+}
@@ -21,6 +21,15 @@ import name.abuchen.portfolio.money.CurrencyConverter;
         this.termCurrency = termCurrency;
     }
 
+    /**
+     * Returns the amount of the transaction converted into the term currency
+     * at the date of the transaction.
+     */
+    protected static long convert(CurrencyConverter converter, Transaction t)
+    {
+        return converter.convert(t.getDate(), t.getCurrencyCode(), t.getAmount());
+    }
+
     public void visit(CurrencyConverter converter, DividendInitialTransaction t)
     {}
 
@@ -33,7 +33,7 @@ import name.abuchen.portfolio.money.Money;
     @Override
     public void visit(CurrencyConverter converter, DividendInitialTransaction t)
     {
-        long amount = converter.convert(t.getDate(), t.getMonetaryAmount()).getAmount();
+        long amount = convert(converter, t);
         fifo.add(new LineItem(t.getPosition().getShares(), amount, amount));
     }
 
@@ -47,7 +47,7 @@ import name.abuchen.portfolio.money.Money;
         {
             case BUY:
             case DELIVERY_INBOUND:
-                long grossAmount = converter.convert(t.getDate(), t.getMonetaryAmount()).getAmount();
+                long grossAmount = convert(converter, t);
                 long netAmount = converter.convert(t.getDate(), t.getGrossValue()).getAmount();
                 fifo.add(new LineItem(t.getShares(), grossAmount, netAmount));
                 break;
@@ -90,7 +90,7 @@ import name.abuchen.portfolio.money.Money;
     public void visit(CurrencyConverter converter, AccountTransaction t)
     {
         if (t.getType() == AccountTransaction.Type.TAX_REFUND)
-            taxes -= converter.convert(t.getDate(), t.getMonetaryAmount()).getAmount();
+            taxes -= convert(converter, t);
     }
 
     @Override
@@ -4,45 +4,36 @@ import name.abuchen.portfolio.model.AccountTransaction;
 import name.abuchen.portfolio.model.PortfolioTransaction;
 import name.abuchen.portfolio.money.CurrencyConverter;
 import name.abuchen.portfolio.money.Money;
-import name.abuchen.portfolio.money.MutableMoney;
 
 /* package */class DeltaCalculation extends Calculation
 {
-    private MutableMoney delta;
-    private MutableMoney cost;
-
-    @Override
-    public void setTermCurrency(String termCurrency)
-    {
-        super.setTermCurrency(termCurrency);
-        this.delta = MutableMoney.of(termCurrency);
-        this.cost = MutableMoney.of(termCurrency);
-    }
+    private long delta;
+    private long cost;
 
     @Override
     public void visit(CurrencyConverter converter, DividendInitialTransaction t)
     {
-        Money amount = t.getMonetaryAmount().with(converter.at(t.getDate()));
-        delta.subtract(amount);
-        cost.add(amount);
+        long amount = convert(converter, t);
+        delta -= amount;
+        cost += amount;
     }
 
     @Override
     public void visit(CurrencyConverter converter, DividendFinalTransaction t)
     {
-        delta.add(t.getMonetaryAmount().with(converter.at(t.getDate())));
+        delta += convert(converter, t);
     }
 
     @Override
     public void visit(CurrencyConverter converter, DividendTransaction t)
     {
-        delta.add(t.getMonetaryAmount().with(converter.at(t.getDate())));
+        delta += convert(converter, t);
     }
 
     @Override
     public void visit(CurrencyConverter converter, AccountTransaction t)
     {
-        delta.add(t.getMonetaryAmount().with(converter.at(t.getDate())));
+        delta += convert(converter, t);
     }
 
     @Override
@@ -52,13 +43,13 @@ import name.abuchen.portfolio.money.MutableMoney;
         {
             case BUY:
             case DELIVERY_INBOUND:
-                Money amount = t.getMonetaryAmount().with(converter.at(t.getDate()));
-                delta.subtract(amount);
-                cost.add(amount);
+                long amount = convert(converter, t);
+                delta -= amount;
+                cost += amount;
                 break;
             case SELL:
             case DELIVERY_OUTBOUND:
-                delta.add(t.getMonetaryAmount().with(converter.at(t.getDate())));
+                delta += convert(converter, t);
                 break;
             case TRANSFER_IN:
             case TRANSFER_OUT:
@@ -71,11 +62,11 @@ import name.abuchen.portfolio.money.MutableMoney;
 
     public Money getDelta()
     {
-        return delta.toMoney();
+        return Money.of(getTermCurrency(), delta);
     }
 
     public double getDeltaPercent()
     {
-        return delta.getAmount() / (double) cost.getAmount();
+        return delta / (double) cost;
     }
 }
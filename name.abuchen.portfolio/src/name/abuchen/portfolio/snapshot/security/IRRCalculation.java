@@ -20,21 +20,21 @@ import name.abuchen.portfolio.money.Values;
     public void visit(CurrencyConverter converter, DividendInitialTransaction t)
     {
         dates.add(t.getDate());
-        values.add(-t.getMonetaryAmount().with(converter.at(t.getDate())).getAmount() / Values.Amount.divider());
+        values.add(-convert(converter, t) / Values.Amount.divider());
     }
 
     @Override
     public void visit(CurrencyConverter converter, DividendFinalTransaction t)
     {
         dates.add(t.getDate());
-        values.add(t.getMonetaryAmount().with(converter.at(t.getDate())).getAmount() / Values.Amount.divider());
+        values.add(convert(converter, t) / Values.Amount.divider());
     }
 
     @Override
     public void visit(CurrencyConverter converter, DividendTransaction t)
     {
         dates.add(t.getDate());
-        values.add(t.getMonetaryAmount().with(converter.at(t.getDate())).getAmount() / Values.Amount.divider());
+        values.add(convert(converter, t) / Values.Amount.divider());
     }
 
     @Override
@@ -48,7 +48,7 @@ import name.abuchen.portfolio.money.Values;
     {
         dates.add(t.getDate());
         long taxes = t.getUnitSum(Unit.Type.TAX, converter).getAmount();
-        long amount = t.getMonetaryAmount().with(converter.at(t.getDate())).getAmount();
+        long amount = convert(converter, t);
         switch (t.getType())
         {
             case BUY:
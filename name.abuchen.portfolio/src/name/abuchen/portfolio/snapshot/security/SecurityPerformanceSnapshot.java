@@ -1,10 +1,10 @@
 package name.abuchen.portfolio.snapshot.security;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
 
 import name.abuchen.portfolio.model.Account;
 import name.abuchen.portfolio.model.AccountTransaction;
@@ -12,6 +12,8 @@ import name.abuchen.portfolio.model.Client;
 import name.abuchen.portfolio.model.Portfolio;
 import name.abuchen.portfolio.model.Security;
 import name.abuchen.portfolio.money.CurrencyConverter;
+import name.abuchen.portfolio.snapshot.HoldingsLedger;
+import name.abuchen.portfolio.snapshot.PerformanceIndex;
 import name.abuchen.portfolio.snapshot.PortfolioSnapshot;
 import name.abuchen.portfolio.snapshot.ReportingPeriod;
 import name.abuchen.portfolio.snapshot.SecurityPosition;
@@ -21,13 +23,14 @@ public class SecurityPerformanceSnapshot
     public static SecurityPerformanceSnapshot create(Client client, CurrencyConverter converter, ReportingPeriod period)
     {
         Map<Security, SecurityPerformanceRecord> transactions = initRecords(client);
+        HoldingsLedger ledger = HoldingsLedger.of(client);
 
         for (Account account : client.getAccounts())
             extractSecurityRelatedAccountTransactions(account, period, transactions);
         for (Portfolio portfolio : client.getPortfolios())
         {
             extractSecurityRelatedPortfolioTransactions(portfolio, period, transactions);
-            addPseudoValuationTansactions(portfolio, converter, period, transactions);
+            addPseudoValuationTansactions(portfolio, converter, period, ledger, transactions);
         }
 
         return doCreateSnapshot(client, converter, transactions, period);
@@ -42,14 +45,15 @@ public class SecurityPerformanceSnapshot
         if (portfolio.getReferenceAccount() != null)
             extractSecurityRelatedAccountTransactions(portfolio.getReferenceAccount(), period, transactions);
         extractSecurityRelatedPortfolioTransactions(portfolio, period, transactions);
-        addPseudoValuationTansactions(portfolio, converter, period, transactions);
+        addPseudoValuationTansactions(portfolio, converter, period, HoldingsLedger.of(client), transactions);
 
         return doCreateSnapshot(client, converter, transactions, period);
     }
 
     private static Map<Security, SecurityPerformanceRecord> initRecords(Client client)
     {
-        Map<Security, SecurityPerformanceRecord> records = new HashMap<Security, SecurityPerformanceRecord>();
+        // linked map: the records are reported in the order of the securities
+        Map<Security, SecurityPerformanceRecord> records = new LinkedHashMap<Security, SecurityPerformanceRecord>();
 
         for (Security s : client.getSecurities())
             records.put(s, new SecurityPerformanceRecord(s));
@@ -61,20 +65,28 @@ public class SecurityPerformanceSnapshot
     {
         List<SecurityPerformanceRecord> list = new ArrayList<SecurityPerformanceRecord>(records.values());
 
-        for (Iterator<SecurityPerformanceRecord> iter = list.iterator(); iter.hasNext();)
+        // remove records that have no transactions during the reporting period
+        list.removeIf(record -> record.getTransactions().isEmpty());
+
+        // calculate values for each security. The records are independent of
+        // each other and are calculated in parallel chunks.
+        int chunks = Math.min(PerformanceIndex.getEffectiveParallelism(), list.size());
+
+        if (chunks <= 1)
         {
-            SecurityPerformanceRecord record = iter.next();
-            if (record.getTransactions().isEmpty())
-            {
-                // remove records that have no transactions
-                // during the reporting period
-                iter.remove();
-            }
-            else
-            {
-                // calculate values for each security
+            for (SecurityPerformanceRecord record : list)
                 record.calculate(client, converter, period);
+        }
+        else
+        {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int ii = 0; ii < chunks; ii++)
+            {
+                List<SecurityPerformanceRecord> chunk = list.subList(list.size() * ii / chunks,
+                                list.size() * (ii + 1) / chunks);
+                tasks.add(ForkJoinTask.adapt(() -> chunk.forEach(r -> r.calculate(client, converter, period))));
             }
+            ForkJoinTask.invokeAll(tasks);
         }
 
         return new SecurityPerformanceSnapshot(list);
@@ -121,16 +133,16 @@ public class SecurityPerformanceSnapshot
     }
 
     private static void addPseudoValuationTansactions(Portfolio portfolio, CurrencyConverter converter,
-                    ReportingPeriod period, Map<Security, SecurityPerformanceRecord> records)
+                    ReportingPeriod period, HoldingsLedger ledger, Map<Security, SecurityPerformanceRecord> records)
     {
-        PortfolioSnapshot snapshot = PortfolioSnapshot.create(portfolio, converter, period.getStartDate());
+        PortfolioSnapshot snapshot = PortfolioSnapshot.create(portfolio, converter, period.getStartDate(), ledger);
         for (SecurityPosition position : snapshot.getPositions())
         {
             records.get(position.getSecurity()).addTransaction(
                             new DividendInitialTransaction(position, period.getStartDate()));
         }
 
-        snapshot = PortfolioSnapshot.create(portfolio, converter, period.getEndDate());
+        snapshot = PortfolioSnapshot.create(portfolio, converter, period.getEndDate(), ledger);
         for (SecurityPosition position : snapshot.getPositions())
         {
             records.get(position.getSecurity()).addTransaction(
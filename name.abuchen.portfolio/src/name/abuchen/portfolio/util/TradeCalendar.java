@@ -4,9 +4,9 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TradeCalendar
 {
@@ -50,7 +50,8 @@ public class TradeCalendar
 
     private static class EasterHoliday implements Holiday
     {
-        private Map<Integer, LocalDate> year2eastern = new HashMap<>();
+        // accessed concurrently by calculations running in parallel
+        private Map<Integer, LocalDate> year2eastern = new ConcurrentHashMap<>();
 
         @Override
         public boolean isOn(LocalDate date)